@@ -0,0 +1,29 @@
+package me.nullicorn.slimeball.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the {@link GCProfiler} enabled, so that every result includes the allocation rate and bytes allocated per operation.
+ * Accepts the same arguments as JMH's own launcher (e.g. {@code java -jar benchmarks.jar ReadBenchmark -p size=LARGE})
+ *
+ * @author Nullicorn
+ */
+public final class BenchmarkRunner {
+
+  public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+    Options options = new OptionsBuilder()
+        .parent(new CommandLineOptions(args))
+        .addProfiler(GCProfiler.class)
+        .build();
+    new Runner(options).run();
+  }
+
+  private BenchmarkRunner() {
+  }
+}
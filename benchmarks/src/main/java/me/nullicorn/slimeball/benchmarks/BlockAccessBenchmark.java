@@ -0,0 +1,136 @@
+package me.nullicorn.slimeball.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import me.nullicorn.slimeball.benchmarks.SyntheticWorlds.WorldSize;
+import me.nullicorn.slimeball.slime.ChunkSectionData;
+import me.nullicorn.slimeball.slime.SlimeInputStream;
+import me.nullicorn.slimeball.slime.api.BlockCursor;
+import me.nullicorn.slimeball.slime.api.NibbleArray;
+import me.nullicorn.slimeball.slime.api.SlimeChunk;
+import me.nullicorn.slimeball.slime.api.SlimeWorld;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for reading single blocks from a decoded world, at each level of the world's structure. Random-access benchmarks read the same
+ * {@value #LOOKUPS} random positions on every invocation, and scan benchmarks read every block in one chunk column in YZX order
+ *
+ * @author Nullicorn
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockAccessBenchmark {
+
+  private static final int LOOKUPS = 4096;
+
+  private SlimeWorld       world;
+  private SlimeChunk       chunk;
+  private ChunkSectionData section;
+  private NibbleArray      nibbles;
+
+  // Random block coordinates in the world, and the same coordinates relative to a section
+  private final int[] blockX = new int[LOOKUPS];
+  private final int[] blockY = new int[LOOKUPS];
+  private final int[] blockZ = new int[LOOKUPS];
+  private final int[] index  = new int[LOOKUPS];
+
+  @Setup
+  public void loadWorld() throws IOException {
+    try (SlimeInputStream in = new SlimeInputStream(new ByteArrayInputStream(SyntheticWorlds.generate(WorldSize.MEDIUM, 0)))) {
+      world = in.readFully();
+    }
+
+    // The first stored chunk, and the stone section near the bottom of it
+    for (SlimeChunk chunk : world.getAllChunks()) {
+      if (chunk != null) {
+        this.chunk = chunk;
+        break;
+      }
+    }
+    section = (ChunkSectionData) chunk.getSection(1);
+
+    Random random = new Random(0);
+    byte[] nibbleBytes = new byte[2048];
+    random.nextBytes(nibbleBytes);
+    nibbles = NibbleArray.of(nibbleBytes);
+
+    int minBlockX = world.getLowestChunkX() << 4;
+    int minBlockZ = world.getLowestChunkZ() << 4;
+    for (int i = 0; i < LOOKUPS; i++) {
+      blockX[i] = minBlockX + random.nextInt(world.getWidth() << 4);
+      blockY[i] = random.nextInt(96);
+      blockZ[i] = minBlockZ + random.nextInt(world.getDepth() << 4);
+      index[i] = random.nextInt(4096);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(LOOKUPS)
+  public void sectionGetBlockAt(Blackhole blackhole) {
+    for (int i = 0; i < LOOKUPS; i++) {
+      blackhole.consume(section.getBlockAt(blockX[i] & 0x0F, blockY[i] & 0x0F, blockZ[i] & 0x0F));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(LOOKUPS)
+  public void nibbleArrayGet(Blackhole blackhole) {
+    for (int i = 0; i < LOOKUPS; i++) {
+      blackhole.consume(nibbles.get(index[i]));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(LOOKUPS)
+  public void worldGetBlockAt(Blackhole blackhole) {
+    for (int i = 0; i < LOOKUPS; i++) {
+      blackhole.consume(world.getBlockAt(blockX[i], blockY[i], blockZ[i]));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(65536)
+  public void worldScanChunk(Blackhole blackhole) {
+    int minX = chunk.getCoordinates().getX() << 4;
+    int minZ = chunk.getCoordinates().getZ() << 4;
+    for (int y = 0; y < 256; y++) {
+      for (int z = minZ; z < minZ + 16; z++) {
+        for (int x = minX; x < minX + 16; x++) {
+          blackhole.consume(world.getBlockAt(x, y, z));
+        }
+      }
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(65536)
+  public void cursorScanChunk(Blackhole blackhole) {
+    int minX = chunk.getCoordinates().getX() << 4;
+    int minZ = chunk.getCoordinates().getZ() << 4;
+    BlockCursor cursor = world.newCursor();
+    for (int y = 0; y < 256; y++) {
+      for (int z = minZ; z < minZ + 16; z++) {
+        for (int x = minX; x < minX + 16; x++) {
+          blackhole.consume(cursor.moveTo(x, y, z).getBlock());
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package me.nullicorn.slimeball.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import me.nullicorn.slimeball.benchmarks.SyntheticWorlds.WorldSize;
+import me.nullicorn.slimeball.slime.BlockData;
+import me.nullicorn.slimeball.slime.SlimeInputStream;
+import me.nullicorn.slimeball.slime.api.ChunkSink;
+import me.nullicorn.slimeball.slime.api.SlimeBlockState;
+import me.nullicorn.slimeball.slime.api.SlimeChunk;
+import me.nullicorn.slimeball.slime.api.SlimeWorld;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the per-chunk work done by {@code BukkitSlimeWorld#loadChunk} when a chunk is generated, which copies the chunk through {@link
+ * ChunkSink#copyChunk(SlimeWorld, int, int, ChunkSink)}. Bukkit's {@code ChunkData}, {@code BiomeGrid} and the legacy block & biome mappings can't
+ * be used outside of a server, so the sink fills arrays instead. Each invocation converts the next chunk in the world
+ *
+ * @author Nullicorn
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkConversionBenchmark {
+
+  /**
+   * Stands in for the modern block data of each legacy block, indexed by {@code (legacyId << 4) | legacyState}. Air is null
+   */
+  private final Object[] blockMappings = new Object[256 * 16];
+
+  /**
+   * Stands in for the modern biome of each legacy biome ID
+   */
+  private final Object[] biomeMappings = new Object[256];
+
+  /**
+   * Stand-ins for the chunk data and biome grid that blocks and biomes are copied into
+   */
+  private final Object[] chunkData = new Object[16 * 256 * 16];
+  private final Object[] biomeGrid = new Object[16 * 16];
+
+  /**
+   * Stands in for {@code BukkitSlimeWorld}'s sink, looking up each block & biome's modern equivalent and storing it in the arrays
+   */
+  private final ChunkSink sink = new ChunkSink() {
+    @Override
+    public void setBiome(int x, int z, byte biome) {
+      Object modernBiome = biomeMappings[biome & 0xFF];
+      if (modernBiome != null) {
+        biomeGrid[(z << 4) | x] = modernBiome;
+      }
+    }
+
+    @Override
+    public void setBlock(int x, int y, int z, SlimeBlockState block) {
+      Object blockData = blockMappings[((block.getLegacyId() & 0xFF) << 4) | (block.getLegacyState() & 0x0F)];
+      if (blockData != null) {
+        chunkData[(y << 8) | (z << 4) | x] = blockData;
+      }
+    }
+  };
+
+  private SlimeWorld   world;
+  private SlimeChunk[] chunks;
+  private int          nextChunk;
+
+  @Setup
+  public void loadWorld() throws IOException {
+    try (SlimeInputStream in = new SlimeInputStream(new ByteArrayInputStream(SyntheticWorlds.generate(WorldSize.MEDIUM, 0)))) {
+      world = in.readFully();
+    }
+
+    List<SlimeChunk> chunks = new ArrayList<>();
+    for (SlimeChunk chunk : world.getAllChunks()) {
+      if (chunk != null) {
+        chunks.add(chunk);
+      }
+    }
+    this.chunks = chunks.toArray(new SlimeChunk[0]);
+
+    for (int legacyId = 1; legacyId < 256; legacyId++) {
+      for (int legacyState = 0; legacyState < 16; legacyState++) {
+        blockMappings[(legacyId << 4) | legacyState] = BlockData.of((byte) legacyId, (byte) legacyState).getId();
+      }
+    }
+    for (int biomeId = 0; biomeId < 256; biomeId++) {
+      biomeMappings[biomeId] = "biome_" + biomeId;
+    }
+  }
+
+  @Benchmark
+  public Object[] loadChunk() {
+    SlimeChunk chunk = chunks[nextChunk];
+    nextChunk = (nextChunk + 1) % chunks.length;
+
+    ChunkSink.copyChunk(world, chunk.getCoordinates().getX(), chunk.getCoordinates().getZ(), sink);
+    return chunkData;
+  }
+}
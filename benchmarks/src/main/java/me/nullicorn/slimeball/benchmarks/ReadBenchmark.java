@@ -0,0 +1,73 @@
+package me.nullicorn.slimeball.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import me.nullicorn.slimeball.benchmarks.SyntheticWorlds.WorldSize;
+import me.nullicorn.slimeball.slime.ChunkLoadMode;
+import me.nullicorn.slimeball.slime.SlimeInputStream;
+import me.nullicorn.slimeball.slime.api.SlimeWorld;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for reading entire slime files, and for decompressing a file's chunk data on its own
+ *
+ * @author Nullicorn
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadBenchmark {
+
+  @Param({"SMALL", "MEDIUM", "LARGE"})
+  public WorldSize size;
+
+  private byte[] file;
+  private int    chunkDataOffset;
+
+  @Setup
+  public void generateFile() throws IOException {
+    file = SyntheticWorlds.generate(size, 0);
+    chunkDataOffset = SyntheticWorlds.getChunkDataOffset(size);
+  }
+
+  /**
+   * The chunk load mode is kept in its own state so that it is only a parameter of {@link #readFully(LoadMode)}
+   */
+  @State(Scope.Benchmark)
+  public static class LoadMode {
+
+    @Param({"EAGER", "LAZY", "PARALLEL", "STREAMING"})
+    public ChunkLoadMode chunkLoadMode;
+  }
+
+  @Benchmark
+  public SlimeWorld readFully(LoadMode loadMode) throws IOException {
+    try (SlimeInputStream in = new SlimeInputStream(new ByteArrayInputStream(file))) {
+      return in.readFully(loadMode.chunkLoadMode);
+    }
+  }
+
+  /**
+   * Only decompresses the chunk data, without decoding any chunks
+   */
+  @Benchmark
+  public byte[] readCompressed() throws IOException {
+    try (SlimeInputStream in = new SlimeInputStream(new ByteArrayInputStream(file, chunkDataOffset, file.length - chunkDataOffset))) {
+      return in.readCompressed();
+    }
+  }
+}
@@ -0,0 +1,188 @@
+package me.nullicorn.slimeball.benchmarks;
+
+import com.github.luben.zstd.Zstd;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * Generates slime files with terrain that looks roughly like a real world (bedrock, stone with ores, dirt and grass, then air), so that benchmark
+ * results are not skewed by data that compresses unusually well or badly
+ *
+ * @author Nullicorn
+ */
+public final class SyntheticWorlds {
+
+  /**
+   * The sizes of world that benchmarks can be run against
+   */
+  public enum WorldSize {
+    SMALL(4, 4),
+    MEDIUM(16, 16),
+    LARGE(32, 32);
+
+    final int width;
+    final int depth;
+
+    WorldSize(int width, int depth) {
+      this.width = width;
+      this.depth = depth;
+    }
+  }
+
+  private static final byte   BEDROCK = 7;
+  private static final byte   STONE   = 1;
+  private static final byte   DIRT    = 3;
+  private static final byte   GRASS   = 2;
+  private static final byte[] ORES    = {14, 15, 16, 21, 56, 73};
+
+  /**
+   * The world starts one chunk into negative coordinates, so that benchmarks also cover negative block coordinates
+   */
+  private static final short MIN_CHUNK_X = -1;
+  private static final short MIN_CHUNK_Z = -1;
+
+  /**
+   * @return The contents of a version 3 slime file with the provided size. The same size and seed always produces the same file
+   */
+  public static byte[] generate(WorldSize size, long seed) throws IOException {
+    Random random = new Random(seed);
+    ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytesOut);
+
+    out.writeShort(0xB10B);
+    out.writeByte(3);
+    out.writeShort(MIN_CHUNK_X);
+    out.writeShort(MIN_CHUNK_Z);
+    out.writeShort(size.width);
+    out.writeShort(size.depth);
+
+    // Leave out about 1 in 10 chunks, like the unexplored edges of a real map
+    int chunkCount = size.width * size.depth;
+    BitSet chunkBitmask = new BitSet(chunkCount);
+    for (int i = 0; i < chunkCount; i++) {
+      if (random.nextInt(10) != 0) {
+        chunkBitmask.set(i);
+      }
+    }
+    out.write(Arrays.copyOf(chunkBitmask.toByteArray(), (chunkCount + 7) / 8));
+
+    ByteArrayOutputStream chunkBytes = new ByteArrayOutputStream();
+    DataOutputStream chunkOut = new DataOutputStream(chunkBytes);
+    for (int i = 0; i < chunkCount; i++) {
+      if (chunkBitmask.get(i)) {
+        int chunkX = MIN_CHUNK_X + (i % size.width);
+        int chunkZ = MIN_CHUNK_Z + (i / size.width);
+        writeChunk(chunkOut, chunkX, chunkZ, random);
+      }
+    }
+    writeCompressed(out, chunkBytes.toByteArray());
+
+    // Empty tile entities, no entities & empty extra data
+    byte[] emptyCompound = {10, 0, 0, 0};
+    writeCompressed(out, emptyCompound);
+    out.writeBoolean(false);
+    writeCompressed(out, emptyCompound);
+
+    return bytesOut.toByteArray();
+  }
+
+  /**
+   * @return The position of the compressed chunk data in a file {@link #generate(WorldSize, long) generated} with the provided size
+   */
+  public static int getChunkDataOffset(WorldSize size) {
+    // Magic number, version, position & size, then the chunk bitmask
+    return 2 + 1 + 4 + 4 + (size.width * size.depth + 7) / 8;
+  }
+
+  private static void writeChunk(DataOutputStream out, int chunkX, int chunkZ, Random random) throws IOException {
+    // Rolling hills, between y=56 and y=80
+    int[] heightmap = new int[256];
+    int maxHeight = 0;
+    for (int z = 0; z < 16; z++) {
+      for (int x = 0; x < 16; x++) {
+        int blockX = (chunkX << 4) + x;
+        int blockZ = (chunkZ << 4) + z;
+        int height = 68 + (int) (8 * Math.sin(blockX / 23d) + 4 * Math.cos(blockZ / 17d));
+        heightmap[z * 16 + x] = height;
+        maxHeight = Math.max(maxHeight, height);
+      }
+    }
+    for (int height : heightmap) {
+      out.writeInt(height);
+    }
+
+    // Plains & forest
+    for (int i = 0; i < 256; i++) {
+      out.writeByte(((chunkX + chunkZ) & 1) == 0 ? 1 : 4);
+    }
+
+    int sectionCount = (maxHeight >> 4) + 1;
+    BitSet sectionBitmask = new BitSet(16);
+    sectionBitmask.set(0, sectionCount);
+    out.write(Arrays.copyOf(sectionBitmask.toByteArray(), 2));
+
+    for (int sectionY = 0; sectionY < sectionCount; sectionY++) {
+      byte[] blockIds = new byte[4096];
+      byte[] blockStates = new byte[2048];
+      byte[] skyLight = new byte[2048];
+
+      for (int index = 0; index < 4096; index++) {
+        int x = index & 0x0F;
+        int z = (index >> 4) & 0x0F;
+        int y = (sectionY << 4) + (index >> 8);
+        int height = heightmap[z * 16 + x];
+
+        byte blockId;
+        int blockState = 0;
+        if (y == 0) {
+          blockId = BEDROCK;
+        } else if (y < height - 4) {
+          if (random.nextInt(100) == 0) {
+            blockId = ORES[random.nextInt(ORES.length)];
+          } else {
+            blockId = STONE;
+            // Granite, diorite & andesite
+            if (random.nextInt(20) == 0) {
+              blockState = 1 + random.nextInt(6);
+            }
+          }
+        } else if (y < height - 1) {
+          blockId = DIRT;
+        } else if (y == height - 1) {
+          blockId = GRASS;
+        } else {
+          blockId = 0;
+        }
+
+        blockIds[index] = blockId;
+        setNibble(blockStates, index, blockState);
+        setNibble(skyLight, index, y >= height ? 15 : 0);
+      }
+
+      out.write(new byte[2048]); // Block light
+      out.write(blockIds);
+      out.write(blockStates);
+      out.write(skyLight);
+      out.writeShort(0); // HypixelBlocks3
+    }
+  }
+
+  private static void setNibble(byte[] nibbles, int index, int value) {
+    int shift = (index & 1) << 2;
+    nibbles[index >> 1] = (byte) ((nibbles[index >> 1] & ~(0x0F << shift)) | ((value & 0x0F) << shift));
+  }
+
+  private static void writeCompressed(DataOutputStream out, byte[] data) throws IOException {
+    byte[] compressed = Zstd.compress(data);
+    out.writeInt(compressed.length);
+    out.writeInt(data.length);
+    out.write(compressed);
+  }
+
+  private SyntheticWorlds() {
+  }
+}
@@ -0,0 +1,697 @@
+package me.nullicorn.slimeball.slime;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.Getter;
+import lombok.Setter;
+import me.nullicorn.nedit.type.NBTCompound;
+import me.nullicorn.nedit.type.NBTList;
+import me.nullicorn.slimeball.slime.api.CoordinateKeys;
+import me.nullicorn.slimeball.slime.exception.IllegalFormatException;
+import me.nullicorn.slimeball.slime.util.LongObjectHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Converts worlds from Minecraft's Anvil format (a directory of .mca region files) to slime files that can be read by {@link SlimeInputStream}.
+ * Chunks are converted in parallel, one row of chunks per task, and each row is compressed into the output as soon as the rows before it are done.
+ * Only a few rows of chunks are held in memory at once, no matter how large the world is. Tile entities and entities can only be written after
+ * every chunk, so they are kept in temporary files next to the output until then, instead of in memory
+ * <p>
+ * Slime stores blocks by their legacy numeric IDs, so only chunks from before the 1.13 "flattening" can be converted
+ *
+ * <p>Usage: {@code java me.nullicorn.slimeball.slime.AnvilConverter <region directory> <output file>}, or {@code java
+ * me.nullicorn.slimeball.slime.AnvilConverter --batch <worlds directory> <output directory>} to convert the {@code region} directory of every world
+ * in a directory
+ *
+ * @author Nullicorn
+ */
+public class AnvilConverter {
+
+  /**
+   * The first data version to use the 1.13+ chunk format, which stores blocks in palettes instead of by numeric ID
+   */
+  private static final int FLATTENING_DATA_VERSION = 1451;
+
+  /**
+   * How many rows of chunks each thread may convert ahead of the row currently being written
+   */
+  private static final int ROWS_PER_THREAD = 2;
+
+  /**
+   * The number of threads used to convert chunks
+   */
+  @Getter
+  @Setter
+  private int parallelism = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * The zstd compression level used for the output (1 to 22; higher is smaller but slower)
+   */
+  @Getter
+  @Setter
+  private int compressionLevel = 3;
+
+  /**
+   * The dictionary to compress the output with, or null to compress without one
+   */
+  @Getter
+  @Setter
+  @Nullable
+  private SlimeDictionary dictionary;
+
+  /**
+   * Convert every region file in a directory into a single slime file. If the conversion fails, the output file is deleted
+   *
+   * @param regionDirectory The directory containing the world's region files (normally the world's {@code region} folder)
+   * @param output          The slime file to create
+   * @throws IOException If a region file could not be read or was in an invalid format, or the output could not be written
+   */
+  public void convert(@NotNull File regionDirectory, @NotNull File output) throws IOException {
+    File[] files = regionDirectory.listFiles();
+    if (files == null) {
+      throw new FileNotFoundException("Region directory does not exist: " + regionDirectory);
+    }
+
+    List<AnvilRegion> regions = new ArrayList<>();
+    try {
+      for (File file : files) {
+        AnvilRegion region = AnvilRegion.open(file);
+        if (region != null) {
+          regions.add(region);
+        }
+      }
+      convert(regions, output);
+    } catch (IOException | RuntimeException e) {
+      output.delete();
+      throw e;
+    } finally {
+      for (AnvilRegion region : regions) {
+        region.close();
+      }
+    }
+  }
+
+  /**
+   * Convert every world in a directory. Each world's {@code region} directory is converted into {@code <output directory>/<world name>/world.slime};
+   * directories without a {@code region} directory are skipped. If some worlds fail to convert, the rest are still converted
+   *
+   * @return The slime files that were created
+   * @throws IOException If the worlds directory does not exist, or if any world could not be converted. Each world's error is attached as a
+   *                     suppressed exception
+   */
+  public List<File> convertBatch(@NotNull File worldsDirectory, @NotNull File outputDirectory) throws IOException {
+    File[] worlds = worldsDirectory.listFiles(File::isDirectory);
+    if (worlds == null) {
+      throw new FileNotFoundException("Worlds directory does not exist: " + worldsDirectory);
+    }
+    Arrays.sort(worlds);
+
+    List<File> converted = new ArrayList<>();
+    IOException failure = null;
+    for (File world : worlds) {
+      File regionDirectory = new File(world, "region");
+      if (!regionDirectory.isDirectory()) {
+        continue;
+      }
+
+      File worldOutputDirectory = new File(outputDirectory, world.getName());
+      File output = new File(worldOutputDirectory, "world.slime");
+      try {
+        if (!worldOutputDirectory.isDirectory() && !worldOutputDirectory.mkdirs()) {
+          throw new IOException("Unable to create output directory " + worldOutputDirectory);
+        }
+        convert(regionDirectory, output);
+        converted.add(output);
+      } catch (IOException e) {
+        if (failure == null) {
+          failure = new IOException("Unable to convert one or more worlds in " + worldsDirectory);
+        }
+        failure.addSuppressed(new IOException("Unable to convert world " + world.getName(), e));
+      }
+    }
+
+    if (failure != null) {
+      throw failure;
+    }
+    return converted;
+  }
+
+  private void convert(List<AnvilRegion> regions, File output) throws IOException {
+    // Find the bounds of the world, and which chunks it has
+    LongObjectHashMap<AnvilRegion> regionsByKey = new LongObjectHashMap<>();
+    int minChunkX = Integer.MAX_VALUE, minChunkZ = Integer.MAX_VALUE;
+    int maxChunkX = Integer.MIN_VALUE, maxChunkZ = Integer.MIN_VALUE;
+    for (AnvilRegion region : regions) {
+      regionsByKey.put(CoordinateKeys.chunkKey(region.getRegionX(), region.getRegionZ()), region);
+      for (int localZ = 0; localZ < 32; localZ++) {
+        for (int localX = 0; localX < 32; localX++) {
+          if (region.hasChunk(localX, localZ)) {
+            int chunkX = (region.getRegionX() << 5) + localX;
+            int chunkZ = (region.getRegionZ() << 5) + localZ;
+            minChunkX = Math.min(minChunkX, chunkX);
+            minChunkZ = Math.min(minChunkZ, chunkZ);
+            maxChunkX = Math.max(maxChunkX, chunkX);
+            maxChunkZ = Math.max(maxChunkZ, chunkZ);
+          }
+        }
+      }
+    }
+    if (minChunkX == Integer.MAX_VALUE) {
+      throw new IllegalFormatException("No chunks found in region files");
+    }
+
+    long width = (long) maxChunkX - minChunkX + 1;
+    long depth = (long) maxChunkZ - minChunkZ + 1;
+    if (width > 0xFFFF || depth > 0xFFFF) {
+      throw new IllegalFormatException("World is too large for the slime format (" + width + "x" + depth + " chunks)");
+    } else if (width * depth > Integer.MAX_VALUE) {
+      // The chunk bitmask and chunk indices are int-based
+      throw new IllegalFormatException("World has too many chunk positions for the slime format (" + width + "x" + depth + " chunks)");
+    } else if (minChunkX < Short.MIN_VALUE || minChunkX > Short.MAX_VALUE || minChunkZ < Short.MIN_VALUE || minChunkZ > Short.MAX_VALUE) {
+      throw new IllegalFormatException("World is too far from the origin for the slime format (" + minChunkX + ", " + minChunkZ + ")");
+    }
+
+    BitSet chunkBitmask = new BitSet((int) (width * depth));
+    for (int z = 0; z < depth; z++) {
+      for (int x = 0; x < width; x++) {
+        int chunkX = minChunkX + x;
+        int chunkZ = minChunkZ + z;
+        AnvilRegion region = regionsByKey.get(CoordinateKeys.chunkKey(chunkX >> 5, chunkZ >> 5));
+        if (region != null && region.hasChunk(chunkX & 0x1F, chunkZ & 0x1F)) {
+          chunkBitmask.set((int) (z * width + x));
+        }
+      }
+    }
+
+    WorldLayout layout = new WorldLayout(regionsByKey, chunkBitmask, minChunkX, minChunkZ, (int) width, (int) depth);
+    try (FileOutputStream fileOut = new FileOutputStream(output);
+        SlimeOutputStream out = new SlimeOutputStream(new BufferedOutputStream(fileOut))) {
+      out.setCompressionLevel(compressionLevel);
+      out.setDictionary(dictionary);
+
+      // Magic numbers, version, position & size of chunks, then the chunk bitmask
+      out.writeShort(BinarySlimeWorld.MAGIC_NUMBERS);
+      out.writeByte(SlimeOutputStream.LATEST_VERSION);
+      out.writeShort(minChunkX);
+      out.writeShort(minChunkZ);
+      out.writeShort((int) width);
+      out.writeShort((int) depth);
+      out.writeBitSet(chunkBitmask, (int) Math.ceil((width * depth) / 8d));
+
+      // Compressed chunk data, while every chunk's tile entities & entities are set aside for later
+      File tempDirectory = output.getAbsoluteFile().getParentFile();
+      try (SpilledList tileEntities = new SpilledList("tiles", tempDirectory);
+          SpilledList entities = new SpilledList("entities", tempDirectory)) {
+        writeCompressedBlob(out, fileOut, "chunk data", chunkOut -> convertChunks(layout, chunkOut, tileEntities, entities));
+
+        // Compressed tile entities, entities & extra NBT
+        writeCompressedBlob(out, fileOut, "tile entities", tileEntities::transferTo);
+        out.writeBoolean(entities.count > 0);
+        if (entities.count > 0) {
+          writeCompressedBlob(out, fileOut, "entities", entities::transferTo);
+        }
+      }
+      out.writeCompressedCompound(new NBTCompound());
+    }
+  }
+
+  /**
+   * Compress data straight into the output file, in the same format as {@link SlimeOutputStream#writeCompressed(byte[], int, int)}. The data's sizes
+   * are only known once it has been written, so they are filled in afterwards
+   *
+   * @param out     The stream that the rest of the file is written through
+   * @param fileOut The file that {@code out} writes to
+   * @param name    What the data is, for error messages
+   * @param writer  Writes the uncompressed data
+   */
+  private static void writeCompressedBlob(SlimeOutputStream out, FileOutputStream fileOut, String name, BlobWriter writer) throws IOException {
+    out.flush();
+    FileChannel channel = fileOut.getChannel();
+    long sizesPosition = channel.position();
+    out.writeInt(0);
+    out.writeInt(0);
+    out.flush();
+
+    CountingOutputStream compressed = new CountingOutputStream(fileOut);
+    CountingOutputStream uncompressed;
+    try (ZstdOutputStream compressor = out.newCompressor(compressed)) {
+      uncompressed = new CountingOutputStream(compressor);
+      writer.write(uncompressed);
+    }
+    if (compressed.getCount() > Integer.MAX_VALUE || uncompressed.getCount() > Integer.MAX_VALUE) {
+      throw new IllegalFormatException("World is too large for the slime format (" + uncompressed.getCount() + " bytes of " + name + ")");
+    }
+
+    ByteBuffer sizes = ByteBuffer.allocate(8);
+    sizes.putInt((int) compressed.getCount());
+    sizes.putInt((int) uncompressed.getCount());
+    sizes.flip();
+    while (sizes.hasRemaining()) {
+      channel.write(sizes, sizesPosition + sizes.position());
+    }
+  }
+
+  /**
+   * Convert every row of chunks in the world, writing each row's chunks to the output in order
+   *
+   * @param tileEntities Where the tile entities of every chunk are collected
+   * @param entities     Where the entities of every chunk are collected
+   */
+  private void convertChunks(WorldLayout layout, OutputStream chunkOut, SpilledList tileEntities, SpilledList entities) throws IOException {
+    int threads = Math.max(1, parallelism);
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      Deque<Future<ConvertedRow>> pending = new ArrayDeque<>();
+      int nextRow = 0;
+
+      for (int row = 0; row < layout.depth; row++) {
+        while (nextRow < layout.depth && pending.size() < threads * ROWS_PER_THREAD) {
+          int rowToConvert = nextRow++;
+          pending.add(pool.submit(() -> convertRow(layout, rowToConvert)));
+        }
+
+        ConvertedRow converted = await(pending.remove());
+        converted.chunks.writeTo(chunkOut);
+        tileEntities.add(converted.tileEntities, converted.tileEntityCount);
+        entities.add(converted.entities, converted.entityCount);
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Convert every chunk in a row of the world (chunks with the same z-coordinate), in order of their x-coordinates
+   *
+   * @param row The row's index in the world, starting at 0 for the lowest z-coordinate
+   */
+  private static ConvertedRow convertRow(WorldLayout layout, int row) throws IOException {
+    ConvertedRow converted = new ConvertedRow();
+    int chunkZ = layout.minChunkZ + row;
+    for (int column = 0; column < layout.width; column++) {
+      if (!layout.chunkBitmask.get(row * layout.width + column)) {
+        continue;
+      }
+
+      int chunkX = layout.minChunkX + column;
+      AnvilRegion region = layout.regions.get(CoordinateKeys.chunkKey(chunkX >> 5, chunkZ >> 5));
+      NBTCompound root = region.readChunk(chunkX & 0x1F, chunkZ & 0x1F);
+      Object level = root != null ? root.get(".Level") : null;
+      if (!(level instanceof NBTCompound)) {
+        throw new IllegalFormatException("Chunk (" + chunkX + ", " + chunkZ + ") in " + region.getFile().getName() + " has no level data");
+      }
+
+      Object dataVersion = root.get(".DataVersion");
+      if (dataVersion instanceof Number && ((Number) dataVersion).intValue() >= FLATTENING_DATA_VERSION) {
+        throw new IllegalFormatException("Chunk (" + chunkX + ", " + chunkZ + ") in " + region.getFile().getName() +
+            " is from Minecraft 1.13 or later, which slime cannot store");
+      } else if (hasExtendedBlockIds((NBTCompound) level)) {
+        throw new IllegalFormatException("Chunk (" + chunkX + ", " + chunkZ + ") in " + region.getFile().getName() +
+            " has block IDs above 255 (an \"Add\" array), which slime cannot store");
+      }
+
+      writeChunk(converted.chunksOut, (NBTCompound) level);
+      for (Object tileEntity : listItems(((NBTCompound) level).get("TileEntities"))) {
+        if (tileEntity instanceof NBTCompound) {
+          NBTSerializer.writeCompoundPayload(converted.tileEntitiesOut, (NBTCompound) tileEntity);
+          converted.tileEntityCount++;
+        }
+      }
+      for (Object entity : listItems(((NBTCompound) level).get("Entities"))) {
+        if (entity instanceof NBTCompound) {
+          NBTSerializer.writeCompoundPayload(converted.entitiesOut, (NBTCompound) entity);
+          converted.entityCount++;
+        }
+      }
+    }
+
+    converted.chunksOut.flush();
+    converted.tileEntitiesOut.flush();
+    converted.entitiesOut.flush();
+    return converted;
+  }
+
+  /**
+   * Write an Anvil chunk in the format read by {@link SlimeInputStream#readChunk(me.nullicorn.slimeball.slime.api.SlimeWorld,
+   * me.nullicorn.slimeball.slime.api.ChunkCoordinates)}
+   *
+   * @param level The chunk's "Level" compound
+   */
+  private static void writeChunk(DataOutputStream out, NBTCompound level) throws IOException {
+    byte[][] blockIds = new byte[16][];
+    byte[][] blockStates = new byte[16][];
+    byte[][] blockLight = new byte[16][];
+    byte[][] skyLight = new byte[16][];
+    for (Object item : listItems(level.get("Sections"))) {
+      if (!(item instanceof NBTCompound)) {
+        continue;
+      }
+      NBTCompound section = (NBTCompound) item;
+
+      // Sections outside the world (e.g. lighting-only sections) and sections without blocks are skipped
+      Object y = section.get("Y");
+      byte[] ids = getByteArray(section, "Blocks", 4096);
+      if (!(y instanceof Number) || ids == null) {
+        continue;
+      }
+      int sectionY = ((Number) y).intValue();
+      if (sectionY < 0 || sectionY > 15) {
+        continue;
+      }
+
+      blockIds[sectionY] = ids;
+      blockStates[sectionY] = getByteArray(section, "Data", 2048);
+      blockLight[sectionY] = getByteArray(section, "BlockLight", 2048);
+      skyLight[sectionY] = getByteArray(section, "SkyLight", 2048);
+    }
+
+    // Heightmap (ZX order in both formats)
+    int[] heightmap = getIntArray(level, "HeightMap", 256);
+    if (heightmap == null) {
+      heightmap = computeHeightmap(blockIds);
+    }
+    for (int height : heightmap) {
+      out.writeInt(height);
+    }
+
+    // Biomes (ZX order in both formats). Missing biomes are left unknown (-1), the same as in Anvil
+    byte[] biomes = getByteArray(level, "Biomes", 256);
+    if (biomes == null) {
+      biomes = new byte[256];
+      Arrays.fill(biomes, (byte) -1);
+    }
+    out.write(biomes);
+
+    // Chunk section bitmask & section data
+    BitSet sectionBitmask = new BitSet(16);
+    for (int sectionY = 0; sectionY < 16; sectionY++) {
+      if (blockIds[sectionY] != null) {
+        sectionBitmask.set(sectionY);
+      }
+    }
+    out.write(Arrays.copyOf(sectionBitmask.toByteArray(), 2));
+
+    byte[] emptyNibbles = new byte[2048];
+    for (int sectionY = 0; sectionY < 16; sectionY++) {
+      if (blockIds[sectionY] == null) {
+        continue;
+      }
+      out.write(blockLight[sectionY] != null ? blockLight[sectionY] : emptyNibbles);
+      out.write(blockIds[sectionY]);
+      out.write(blockStates[sectionY] != null ? blockStates[sectionY] : emptyNibbles);
+      out.write(skyLight[sectionY] != null ? skyLight[sectionY] : emptyNibbles);
+      out.writeShort(0); // HypixelBlocks3
+    }
+  }
+
+  /**
+   * Compute a heightmap from a chunk's block IDs; the height of each column is one above its highest non-air block
+   */
+  private static int[] computeHeightmap(byte[][] blockIds) {
+    int[] heightmap = new int[256];
+    for (int sectionY = 15; sectionY >= 0; sectionY--) {
+      byte[] ids = blockIds[sectionY];
+      if (ids == null) {
+        continue;
+      }
+      for (int i = 4095; i >= 0; i--) {
+        int column = i & 0xFF;
+        if (ids[i] != 0 && heightmap[column] == 0) {
+          heightmap[column] = (sectionY << 4) + (i >> 8) + 1;
+        }
+      }
+    }
+    return heightmap;
+  }
+
+  /**
+   * @return The items in an NBT list, or nothing if the value is not a list
+   */
+  private static List<Object> listItems(@Nullable Object value) {
+    List<Object> items = new ArrayList<>();
+    if (value instanceof NBTList) {
+      ((NBTList) value).forEach(items::add);
+    }
+    return items;
+  }
+
+  /**
+   * @param level The chunk's "Level" compound
+   * @return Whether or not any of the chunk's sections use the upper 4 bits of block IDs (their "Add" array), which slime has nowhere to store
+   */
+  private static boolean hasExtendedBlockIds(NBTCompound level) throws IllegalFormatException {
+    for (Object item : listItems(level.get("Sections"))) {
+      if (!(item instanceof NBTCompound)) {
+        continue;
+      }
+
+      byte[] add = getByteArray((NBTCompound) item, "Add", 2048);
+      if (add != null) {
+        for (byte nibbles : add) {
+          if (nibbles != 0) {
+            return true;
+          }
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return The compound's byte array with the provided name, or null if it does not have one
+   * @throws IllegalFormatException If the array does not have the expected length
+   */
+  private static @Nullable byte[] getByteArray(NBTCompound compound, String name, int length) throws IllegalFormatException {
+    Object value = compound.get(name);
+    byte[] bytes;
+    if (value instanceof byte[]) {
+      bytes = (byte[]) value;
+    } else if (value instanceof Byte[]) {
+      Byte[] boxed = (Byte[]) value;
+      bytes = new byte[boxed.length];
+      for (int i = 0; i < boxed.length; i++) {
+        bytes[i] = boxed[i];
+      }
+    } else {
+      return null;
+    }
+
+    if (bytes.length != length) {
+      throw new IllegalFormatException("Expected " + name + " to have " + length + " bytes but found " + bytes.length);
+    }
+    return bytes;
+  }
+
+  /**
+   * @return The compound's int array with the provided name, or null if it does not have one
+   * @throws IllegalFormatException If the array does not have the expected length
+   */
+  private static @Nullable int[] getIntArray(NBTCompound compound, String name, int length) throws IllegalFormatException {
+    Object value = compound.get(name);
+    int[] ints;
+    if (value instanceof int[]) {
+      ints = (int[]) value;
+    } else if (value instanceof Integer[]) {
+      Integer[] boxed = (Integer[]) value;
+      ints = new int[boxed.length];
+      for (int i = 0; i < boxed.length; i++) {
+        ints[i] = boxed[i];
+      }
+    } else {
+      return null;
+    }
+
+    if (ints.length != length) {
+      throw new IllegalFormatException("Expected " + name + " to have " + length + " ints but found " + ints.length);
+    }
+    return ints;
+  }
+
+  /**
+   * Wait for a row to finish converting
+   */
+  private static ConvertedRow await(Future<ConvertedRow> row) throws IOException {
+    try {
+      return row.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while converting chunks");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IOException("Unable to convert chunks", cause);
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    boolean batch = args.length == 3 && args[0].equals("--batch");
+    if (args.length != 2 && !batch) {
+      System.err.println("Usage: AnvilConverter <region directory> <output file>");
+      System.err.println("       AnvilConverter --batch <worlds directory> <output directory>");
+      System.exit(1);
+      return;
+    }
+
+    AnvilConverter converter = new AnvilConverter();
+    if (batch) {
+      List<File> converted = converter.convertBatch(new File(args[1]), new File(args[2]));
+      System.out.println("Converted " + converted.size() + " worlds");
+    } else {
+      converter.convert(new File(args[0]), new File(args[1]));
+      System.out.println("Converted " + args[0] + " to " + args[1]);
+    }
+  }
+
+  /**
+   * The region files of a world, and which of its chunks exist
+   */
+  private static final class WorldLayout {
+
+    final LongObjectHashMap<AnvilRegion> regions;
+    final BitSet                         chunkBitmask;
+    final int                            minChunkX;
+    final int                            minChunkZ;
+    final int                            width;
+    final int                            depth;
+
+    WorldLayout(LongObjectHashMap<AnvilRegion> regions, BitSet chunkBitmask, int minChunkX, int minChunkZ, int width, int depth) {
+      this.regions = regions;
+      this.chunkBitmask = chunkBitmask;
+      this.minChunkX = minChunkX;
+      this.minChunkZ = minChunkZ;
+      this.width = width;
+      this.depth = depth;
+    }
+  }
+
+  /**
+   * The uncompressed slime data for a row of chunks, and the tile entities & entities in those chunks (serialized, without list headers)
+   */
+  private static final class ConvertedRow {
+
+    final ReusableByteArrayOutputStream chunks          = new ReusableByteArrayOutputStream(64 * 1024);
+    final ReusableByteArrayOutputStream tileEntities    = new ReusableByteArrayOutputStream(1024);
+    final ReusableByteArrayOutputStream entities        = new ReusableByteArrayOutputStream(1024);
+    final DataOutputStream              chunksOut       = new DataOutputStream(chunks);
+    final DataOutputStream              tileEntitiesOut = new DataOutputStream(tileEntities);
+    final DataOutputStream              entitiesOut     = new DataOutputStream(entities);
+    int tileEntityCount;
+    int entityCount;
+  }
+
+  /**
+   * Writes the uncompressed contents of a blob in the output file
+   */
+  @FunctionalInterface
+  private interface BlobWriter {
+
+    void write(OutputStream out) throws IOException;
+  }
+
+  /**
+   * A list of compounds from every chunk, serialized into a temporary file as each row of chunks is converted. The file is deleted when this is
+   * closed
+   */
+  private static final class SpilledList implements Closeable {
+
+    private final String       listName;
+    private final File         file;
+    private final OutputStream items;
+    int count;
+
+    SpilledList(String listName, File directory) throws IOException {
+      this.listName = listName;
+      this.file = File.createTempFile("slime-" + listName + "-", ".nbt", directory);
+      this.items = new BufferedOutputStream(new FileOutputStream(file));
+    }
+
+    /**
+     * Add compounds that were already serialized with {@link NBTSerializer#writeCompoundPayload(java.io.DataOutput, NBTCompound)}
+     */
+    void add(ReusableByteArrayOutputStream serialized, int compounds) throws IOException {
+      serialized.writeTo(items);
+      count += compounds;
+    }
+
+    /**
+     * Write every compound in the list, as an unnamed root compound containing the list
+     */
+    void transferTo(OutputStream out) throws IOException {
+      items.close();
+      DataOutputStream dataOut = new DataOutputStream(out);
+      NBTSerializer.writeRootListStart(dataOut, listName, count);
+      dataOut.flush();
+      Files.copy(file.toPath(), out);
+      NBTSerializer.writeRootListEnd(dataOut);
+      dataOut.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        items.close();
+      } finally {
+        Files.deleteIfExists(file.toPath());
+      }
+    }
+  }
+
+  /**
+   * Passes writes through to another stream, counting how many bytes were written. Closing this stream only flushes the other stream
+   */
+  private static final class CountingOutputStream extends FilterOutputStream {
+
+    @Getter
+    private long count;
+
+    CountingOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+      count += len;
+    }
+
+    @Override
+    public void close() throws IOException {
+      flush();
+    }
+  }
+}
@@ -0,0 +1,433 @@
+package me.nullicorn.slimeball.slime;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import lombok.Getter;
+import lombok.Setter;
+import me.nullicorn.nedit.type.NBTCompound;
+import me.nullicorn.nedit.type.NBTList;
+import me.nullicorn.slimeball.slime.api.CoordinateKeys;
+import me.nullicorn.slimeball.slime.api.NibbleArray;
+import me.nullicorn.slimeball.slime.api.SlimeChunk;
+import me.nullicorn.slimeball.slime.api.SlimeChunkSection;
+import me.nullicorn.slimeball.slime.api.SlimeWorld;
+import me.nullicorn.slimeball.slime.exception.IllegalFormatException;
+import me.nullicorn.slimeball.slime.util.LongObjectHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Exports slime worlds to Minecraft's Anvil format (region files), so that they can be opened in regular world editors. This is the reverse of
+ * {@link AnvilConverter}, and writes chunks in the pre-1.13 format that slime's block IDs come from
+ * <p>
+ * Chunks are taken from the world one at a time, and are serialized & compressed in parallel. Each region file is written in a single sequential
+ * pass once all of its chunks are compressed, and only a couple of regions' worth of compressed chunks are held in memory at once. Chunks are read
+ * from the world by multiple threads, which every {@link SlimeWorld} in this project supports
+ *
+ * @author Nullicorn
+ */
+public class AnvilExporter {
+
+  private static final int SECTOR_SIZE = 4096;
+
+  /**
+   * The largest a chunk can be in a region file, since the number of sectors it takes up is stored in a single byte
+   */
+  private static final int MAX_CHUNK_SECTORS = 255;
+
+  /**
+   * Compression type for zlib-compressed chunks, the same as vanilla uses
+   */
+  private static final int COMPRESSION_ZLIB = 2;
+
+  /**
+   * How many regions may be compressed ahead of the region currently being written
+   */
+  private static final int REGIONS_IN_FLIGHT = 2;
+
+  /**
+   * The number of threads used to serialize & compress chunks
+   */
+  @Getter
+  @Setter
+  private int parallelism = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * The zlib compression level used for chunks (0 to 9, or -1 for zlib's default)
+   */
+  @Getter
+  @Setter
+  private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+  /**
+   * Write every chunk in the world to region files (r.X.Z.mca) in the provided directory. Existing region files with the same names are replaced,
+   * and regions without any chunks are not written
+   *
+   * @param regionDirectory The directory to write region files to (normally a world's {@code region} folder). It is created if it does not exist
+   * @return The number of region files that were written
+   * @throws IOException If a chunk is too large for a region file, or a region file could not be written
+   */
+  public int export(@NotNull SlimeWorld world, @NotNull File regionDirectory) throws IOException {
+    if (!regionDirectory.isDirectory() && !regionDirectory.mkdirs()) {
+      throw new FileNotFoundException("Unable to create region directory " + regionDirectory);
+    }
+
+    LongObjectHashMap<List<NBTCompound>> tileEntitiesByChunk = new LongObjectHashMap<>();
+    world.getTileEntities().forEachCompound(tileEntity -> {
+      long chunkKey = CoordinateKeys.chunkKeyAtBlock(tileEntity.getInt("x", 0), tileEntity.getInt("z", 0));
+      tileEntitiesByChunk.computeIfAbsent(chunkKey, key -> new ArrayList<>()).add(tileEntity);
+    });
+    LongObjectHashMap<List<NBTCompound>> entitiesByChunk = indexEntities(world);
+
+    // Every region that overlaps the world, in the order they will be written
+    int minRegionX = world.getLowestChunkX() >> 5;
+    int minRegionZ = world.getLowestChunkZ() >> 5;
+    int maxRegionX = (world.getLowestChunkX() + world.getWidth() - 1) >> 5;
+    int maxRegionZ = (world.getLowestChunkZ() + world.getDepth() - 1) >> 5;
+    List<long[]> regions = new ArrayList<>();
+    for (int regionZ = minRegionZ; regionZ <= maxRegionZ; regionZ++) {
+      for (int regionX = minRegionX; regionX <= maxRegionX; regionX++) {
+        regions.add(new long[]{regionX, regionZ});
+      }
+    }
+
+    int threads = Math.max(1, parallelism);
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      Deque<PendingRegion> pending = new ArrayDeque<>();
+      int nextRegion = 0;
+      int written = 0;
+      while (nextRegion < regions.size() || !pending.isEmpty()) {
+        while (nextRegion < regions.size() && pending.size() < REGIONS_IN_FLIGHT) {
+          long[] region = regions.get(nextRegion++);
+          pending.add(submitRegion(pool, world, (int) region[0], (int) region[1], tileEntitiesByChunk, entitiesByChunk));
+        }
+        if (writeRegion(pending.remove(), regionDirectory)) {
+          written++;
+        }
+      }
+      return written;
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Start serializing & compressing every chunk in a region
+   */
+  private PendingRegion submitRegion(ExecutorService pool, SlimeWorld world, int regionX, int regionZ,
+      LongObjectHashMap<List<NBTCompound>> tileEntitiesByChunk, LongObjectHashMap<List<NBTCompound>> entitiesByChunk) {
+    PendingRegion region = new PendingRegion(regionX, regionZ);
+    for (int localZ = 0; localZ < 32; localZ++) {
+      for (int localX = 0; localX < 32; localX++) {
+        int chunkX = (regionX << 5) + localX;
+        int chunkZ = (regionZ << 5) + localZ;
+        if (chunkX < world.getLowestChunkX() || chunkX >= world.getLowestChunkX() + world.getWidth() ||
+            chunkZ < world.getLowestChunkZ() || chunkZ >= world.getLowestChunkZ() + world.getDepth()) {
+          continue;
+        }
+
+        long chunkKey = CoordinateKeys.chunkKey(chunkX, chunkZ);
+        region.chunks[localX + localZ * 32] = pool.submit(() -> {
+          SlimeChunk chunk = world.getChunk(chunkX, chunkZ);
+          return chunk != null
+              ? compressChunk(chunk, chunkX, chunkZ, tileEntitiesByChunk.get(chunkKey), entitiesByChunk.get(chunkKey))
+              : null;
+        });
+      }
+    }
+    return region;
+  }
+
+  /**
+   * Wait for every chunk in a region to be compressed, then write the region file
+   *
+   * @return Whether or not the region file was written. Regions without any chunks are skipped
+   */
+  private static boolean writeRegion(PendingRegion region, File regionDirectory) throws IOException {
+    byte[][] chunks = new byte[1024][];
+    boolean hasChunks = false;
+    for (int i = 0; i < chunks.length; i++) {
+      if (region.chunks[i] != null) {
+        chunks[i] = await(region.chunks[i]);
+        hasChunks |= chunks[i] != null;
+      }
+    }
+    if (!hasChunks) {
+      return false;
+    }
+
+    // Location table & timestamps
+    int[] locations = new int[1024];
+    int sector = 2;
+    for (int i = 0; i < chunks.length; i++) {
+      if (chunks[i] != null) {
+        int sectorCount = sectorsFor(chunks[i].length);
+        if (sectorCount > MAX_CHUNK_SECTORS) {
+          throw new IllegalFormatException("Chunk (" + ((region.regionX << 5) + (i & 0x1F)) + ", " + ((region.regionZ << 5) + (i >> 5)) +
+              ") is too large for a region file (" + chunks[i].length + " bytes compressed)");
+        }
+        locations[i] = (sector << 8) | sectorCount;
+        sector += sectorCount;
+      }
+    }
+    int timestamp = (int) (System.currentTimeMillis() / 1000);
+
+    File file = new File(regionDirectory, "r." + region.regionX + "." + region.regionZ + ".mca");
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 64 * 1024))) {
+      for (int location : locations) {
+        out.writeInt(location);
+      }
+      for (int location : locations) {
+        out.writeInt(location != 0 ? timestamp : 0);
+      }
+
+      // Each chunk is its length, compression type & compressed NBT, padded to a whole number of sectors
+      byte[] padding = new byte[SECTOR_SIZE];
+      for (byte[] chunk : chunks) {
+        if (chunk == null) {
+          continue;
+        }
+        out.writeInt(chunk.length + 1);
+        out.writeByte(COMPRESSION_ZLIB);
+        out.write(chunk);
+        out.write(padding, 0, sectorsFor(chunk.length) * SECTOR_SIZE - (chunk.length + 5));
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return The number of sectors taken up by a chunk with the provided compressed size, including its length & compression type
+   */
+  private static int sectorsFor(int compressedSize) {
+    return (compressedSize + 5 + SECTOR_SIZE - 1) / SECTOR_SIZE;
+  }
+
+  /**
+   * Serialize a chunk to Anvil NBT and compress it with zlib
+   *
+   * @return The compressed NBT
+   */
+  private byte[] compressChunk(SlimeChunk chunk, int chunkX, int chunkZ, @Nullable List<NBTCompound> tileEntities,
+      @Nullable List<NBTCompound> entities) throws IOException {
+    ReusableByteArrayOutputStream compressed = new ReusableByteArrayOutputStream(16 * 1024);
+    Deflater deflater = new Deflater(compressionLevel);
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new DeflaterOutputStream(compressed, deflater), 8 * 1024))) {
+      writeChunk(out, chunk, chunkX, chunkZ, tileEntities, entities);
+    } finally {
+      deflater.end();
+    }
+    return compressed.toByteArray();
+  }
+
+  /**
+   * Write a chunk as an Anvil chunk's root NBT compound
+   */
+  private static void writeChunk(DataOutputStream out, SlimeChunk chunk, int chunkX, int chunkZ, @Nullable List<NBTCompound> tileEntities,
+      @Nullable List<NBTCompound> entities) throws IOException {
+    ChunkData chunkData = chunk instanceof ChunkData ? (ChunkData) chunk : null;
+
+    NBTSerializer.writeCompoundStart(out, "");
+    NBTSerializer.writeCompoundStart(out, "Level");
+    NBTSerializer.writeNamedTag(out, "xPos", chunkX);
+    NBTSerializer.writeNamedTag(out, "zPos", chunkZ);
+    NBTSerializer.writeNamedTag(out, "LastUpdate", 0L);
+    NBTSerializer.writeNamedTag(out, "InhabitedTime", 0L);
+    NBTSerializer.writeNamedTag(out, "TerrainPopulated", (byte) 1);
+    NBTSerializer.writeNamedTag(out, "LightPopulated", (byte) 1);
+    NBTSerializer.writeNamedTag(out, "V", (byte) 1);
+
+    // Heightmap (ZX order in both formats)
+    int[] heightmap;
+    if (chunkData != null && chunkData.heightmap != null) {
+      heightmap = chunkData.heightmap;
+    } else {
+      // Anvil's heightmap is one above the highest non-air block in each column (so 0 for columns that are all air)
+      heightmap = new int[256];
+      chunk.copySurface(heightmap);
+      for (int i = 0; i < heightmap.length; i++) {
+        heightmap[i]++;
+      }
+    }
+    NBTSerializer.writeNamedTag(out, "HeightMap", heightmap);
+
+    // Biomes (ZX order in both formats)
+    byte[] biomes;
+    if (chunkData != null && chunkData.biomes != null) {
+      biomes = chunkData.biomes;
+    } else {
+      biomes = new byte[256];
+      for (int z = 0; z < 16; z++) {
+        for (int x = 0; x < 16; x++) {
+          biomes[z * 16 + x] = chunk.getBiomeAt(x, z);
+        }
+      }
+    }
+    NBTSerializer.writeNamedTag(out, "Biomes", biomes);
+
+    // Sections
+    int sectionCount = 0;
+    for (int sectionY = 0; sectionY < 16; sectionY++) {
+      if (chunk.getSection(sectionY) != null) {
+        sectionCount++;
+      }
+    }
+    NBTSerializer.writeCompoundListStart(out, "Sections", sectionCount);
+    byte[] unpacked = new byte[4096];
+    for (int sectionY = 0; sectionY < 16; sectionY++) {
+      SlimeChunkSection section = chunk.getSection(sectionY);
+      if (section == null) {
+        continue;
+      }
+      ChunkSectionData sectionData = section instanceof ChunkSectionData ? (ChunkSectionData) section : null;
+
+      NBTSerializer.writeNamedTag(out, "Y", (byte) sectionY);
+
+      byte[] blockIds = new byte[4096];
+      section.copyLegacyBlockIds(blockIds, 0);
+      NBTSerializer.writeNamedTag(out, "Blocks", blockIds);
+
+      if (sectionData != null) {
+        NBTSerializer.writeNamedTag(out, "Data", toBytes(sectionData.blockStates));
+        NBTSerializer.writeNamedTag(out, "BlockLight", toBytes(sectionData.blockLight));
+        NBTSerializer.writeNamedTag(out, "SkyLight", toBytes(sectionData.skyLight));
+      } else {
+        section.copyLegacyBlockStates(unpacked, 0);
+        NBTSerializer.writeNamedTag(out, "Data", packNibbles(unpacked));
+        for (int i = 0; i < 4096; i++) {
+          unpacked[i] = section.getBlockLightAt(i & 0x0F, i >> 8, (i >> 4) & 0x0F);
+        }
+        NBTSerializer.writeNamedTag(out, "BlockLight", packNibbles(unpacked));
+        for (int i = 0; i < 4096; i++) {
+          unpacked[i] = section.getSkyLightAt(i & 0x0F, i >> 8, (i >> 4) & 0x0F);
+        }
+        NBTSerializer.writeNamedTag(out, "SkyLight", packNibbles(unpacked));
+      }
+      NBTSerializer.writeCompoundEnd(out);
+    }
+
+    // Entities & tile entities
+    writeCompoundList(out, "Entities", entities);
+    writeCompoundList(out, "TileEntities", tileEntities);
+
+    NBTSerializer.writeCompoundEnd(out);
+    NBTSerializer.writeCompoundEnd(out);
+  }
+
+  private static void writeCompoundList(DataOutputStream out, String name, @Nullable List<NBTCompound> compounds) throws IOException {
+    int size = compounds != null ? compounds.size() : 0;
+    NBTSerializer.writeCompoundListStart(out, name, size);
+    for (int i = 0; i < size; i++) {
+      NBTSerializer.writeCompoundPayload(out, compounds.get(i));
+    }
+  }
+
+  /**
+   * @return A nibble array's 2048 bytes, or 2048 zeroes if the array is null
+   */
+  private static byte[] toBytes(@Nullable NibbleArray nibbles) {
+    if (nibbles != null && !nibbles.isUniform()) {
+      return nibbles.getAllBytes();
+    }
+    byte[] bytes = new byte[2048];
+    byte value = nibbles != null ? nibbles.get(0) : 0;
+    Arrays.fill(bytes, (byte) (value | (value << 4)));
+    return bytes;
+  }
+
+  /**
+   * Pack 4096 nibbles (one per byte, in YZX order) into 2048 bytes
+   */
+  private static byte[] packNibbles(byte[] unpacked) {
+    byte[] packed = new byte[2048];
+    for (int i = 0; i < packed.length; i++) {
+      packed[i] = (byte) ((unpacked[i * 2] & 0x0F) | ((unpacked[i * 2 + 1] & 0x0F) << 4));
+    }
+    return packed;
+  }
+
+  /**
+   * Group a world's entities by the chunk they are in. Entities without a valid position are left out, since they cannot be placed in a chunk
+   *
+   * @return The world's entities, mapped to the packed coordinates of the chunk they are in
+   */
+  private static LongObjectHashMap<List<NBTCompound>> indexEntities(SlimeWorld world) {
+    LongObjectHashMap<List<NBTCompound>> entitiesByChunk = new LongObjectHashMap<>();
+    world.getEntities().forEachCompound(entity -> {
+      Object pos = entity.get("Pos");
+      if (!(pos instanceof NBTList)) {
+        return;
+      }
+      List<Object> coordinates = new ArrayList<>();
+      ((NBTList) pos).forEach(coordinates::add);
+      if (coordinates.size() != 3 || !(coordinates.get(0) instanceof Number) || !(coordinates.get(2) instanceof Number)) {
+        return;
+      }
+
+      int blockX = (int) Math.floor(((Number) coordinates.get(0)).doubleValue());
+      int blockZ = (int) Math.floor(((Number) coordinates.get(2)).doubleValue());
+      entitiesByChunk.computeIfAbsent(CoordinateKeys.chunkKeyAtBlock(blockX, blockZ), key -> new ArrayList<>()).add(entity);
+    });
+    return entitiesByChunk;
+  }
+
+  /**
+   * Wait for a chunk to finish compressing
+   */
+  private static byte[] await(Future<byte[]> chunk) throws IOException {
+    try {
+      return chunk.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while exporting chunks");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IOException("Unable to export chunks", cause);
+    }
+  }
+
+  /**
+   * A region whose chunks are being compressed
+   */
+  private static final class PendingRegion {
+
+    final int regionX;
+    final int regionZ;
+
+    /**
+     * The compressed NBT of each chunk in the region, indexed by {@code localX + localZ * 32}. Chunks outside the world are null, and chunks that
+     * are missing from the world finish as null
+     */
+    @SuppressWarnings("unchecked")
+    final Future<byte[]>[] chunks = new Future[1024];
+
+    PendingRegion(int regionX, int regionZ) {
+      this.regionX = regionX;
+      this.regionZ = regionZ;
+    }
+  }
+}
@@ -0,0 +1,181 @@
+package me.nullicorn.slimeball.slime;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import lombok.Getter;
+import me.nullicorn.nedit.NBTInputStream;
+import me.nullicorn.nedit.type.NBTCompound;
+import me.nullicorn.slimeball.slime.exception.IllegalFormatException;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A region file (.mca) in the Anvil format, holding up to 32x32 chunks. Only the file's location table is kept in memory; chunks are read from the
+ * file when they are requested
+ * <p>
+ * Reading chunks is thread-safe
+ *
+ * @author Nullicorn
+ */
+final class AnvilRegion implements Closeable {
+
+  private static final Pattern FILE_NAME = Pattern.compile("r\\.(-?\\d+)\\.(-?\\d+)\\.mca");
+
+  private static final int SECTOR_SIZE = 4096;
+
+  // Compression types for chunk data
+  private static final int COMPRESSION_GZIP = 1;
+  private static final int COMPRESSION_ZLIB = 2;
+  private static final int COMPRESSION_NONE = 3;
+
+  @Getter
+  private final File        file;
+  @Getter
+  private final int         regionX;
+  @Getter
+  private final int         regionZ;
+  private final FileChannel channel;
+
+  /**
+   * The location of each chunk in the file, indexed by {@code localX + localZ * 32}. The upper 3 bytes are the chunk's offset in sectors, and the
+   * lowest byte is the number of sectors it takes up. Missing chunks are 0
+   */
+  private final int[] locations = new int[1024];
+
+  private AnvilRegion(File file, int regionX, int regionZ) throws IOException {
+    this.file = file;
+    this.regionX = regionX;
+    this.regionZ = regionZ;
+    this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+
+    try {
+      // Empty files are allowed, and have no chunks
+      if (channel.size() > 0) {
+        ByteBuffer table = ByteBuffer.allocate(SECTOR_SIZE);
+        readFully(table, 0);
+        table.flip();
+        table.asIntBuffer().get(locations);
+      }
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Open a region file and read its location table
+   *
+   * @return The region, or null if the file's name is not that of a region file (r.X.Z.mca)
+   * @throws IOException If the file could not be opened, or its location table could not be read
+   */
+  static @Nullable AnvilRegion open(File file) throws IOException {
+    Matcher matcher = FILE_NAME.matcher(file.getName());
+    if (!matcher.matches()) {
+      return null;
+    }
+
+    int regionX, regionZ;
+    try {
+      regionX = Integer.parseInt(matcher.group(1));
+      regionZ = Integer.parseInt(matcher.group(2));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+    return new AnvilRegion(file, regionX, regionZ);
+  }
+
+  /**
+   * @param localX x-coordinate of the chunk within the region (0 to 31)
+   * @param localZ z-coordinate of the chunk within the region (0 to 31)
+   * @return Whether or not the region has data for the chunk
+   */
+  boolean hasChunk(int localX, int localZ) {
+    return locations[localX + localZ * 32] != 0;
+  }
+
+  /**
+   * Read and decompress a chunk's NBT
+   *
+   * @param localX x-coordinate of the chunk within the region (0 to 31)
+   * @param localZ z-coordinate of the chunk within the region (0 to 31)
+   * @return The chunk's root NBT compound, or null if the region does not have the chunk
+   * @throws IOException If the chunk could not be read or was in an invalid format
+   */
+  @Nullable NBTCompound readChunk(int localX, int localZ) throws IOException {
+    int location = locations[localX + localZ * 32];
+    if (location == 0) {
+      return null;
+    }
+    long offset = (long) (location >>> 8) * SECTOR_SIZE;
+    int maxLength = (location & 0xFF) * SECTOR_SIZE;
+
+    // Length (including the compression type) & compression type
+    ByteBuffer header = ByteBuffer.allocate(5);
+    readFully(header, offset);
+    header.flip();
+    int length = header.getInt() - 1;
+    int compression = header.get();
+    if (length <= 0 || length + 5 > maxLength) {
+      throw new IllegalFormatException("Chunk (" + localX + ", " + localZ + ") in " + file.getName() + " has an invalid length: " + length);
+    }
+
+    ByteBuffer data = ByteBuffer.allocate(length);
+    readFully(data, offset + 5);
+
+    InputStream in = new ByteArrayInputStream(data.array());
+    switch (compression) {
+      case COMPRESSION_GZIP:
+        in = new BufferedInputStream(new GZIPInputStream(in));
+        break;
+      case COMPRESSION_ZLIB:
+        in = new BufferedInputStream(new InflaterInputStream(in));
+        break;
+      case COMPRESSION_NONE:
+        break;
+      default:
+        throw new IllegalFormatException("Chunk (" + localX + ", " + localZ + ") in " + file.getName() + " uses unknown compression: " + compression);
+    }
+
+    return new NBTInputStream(in).readFully();
+  }
+
+  /**
+   * Fill the buffer with data from the file, starting at the provided position in the file
+   *
+   * @throws EOFException If the file ends before the buffer is full
+   */
+  private void readFully(ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position);
+      if (read < 0) {
+        throw new EOFException("Unexpectedly reached end of " + file.getName());
+      }
+      position += read;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  @Override
+  public String toString() {
+    return "AnvilRegion{" +
+        "file=" + file +
+        ", regionX=" + regionX +
+        ", regionZ=" + regionZ +
+        '}';
+  }
+}
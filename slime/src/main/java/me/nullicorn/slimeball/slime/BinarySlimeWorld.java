@@ -1,19 +1,28 @@
 package me.nullicorn.slimeball.slime;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import lombok.Builder;
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.Setter;
 import me.nullicorn.nedit.type.NBTCompound;
 import me.nullicorn.nedit.type.NBTList;
 import me.nullicorn.nedit.type.TagType;
+import me.nullicorn.slimeball.slime.api.BlockCursor;
 import me.nullicorn.slimeball.slime.api.ChunkCoordinates;
+import me.nullicorn.slimeball.slime.api.CoordinateKeys;
 import me.nullicorn.slimeball.slime.api.SlimeBlockState;
 import me.nullicorn.slimeball.slime.api.SlimeChunk;
 import me.nullicorn.slimeball.slime.api.SlimeChunkSection;
@@ -38,16 +47,54 @@ public class BinarySlimeWorld implements SlimeWorld {
   protected final int   depth;
 
   // Chunks, tile-entities, entities & extra
+  // Everything but the bitmask is set while the file is being read, so that chunks can be streamed into the world before the NBT is read
   protected final BitSet      chunkBitmask;
-  protected final byte[]      rawChunkData;
-  protected final NBTCompound tileEntityData;
-  protected final boolean     hasEntities;
-  protected final NBTCompound entityData;
-  protected final NBTCompound extraData;
+  @Setter(AccessLevel.PACKAGE)
+  protected volatile ByteBuffer rawChunkData;
+  @Setter(AccessLevel.PACKAGE)
+  protected       NBTCompound tileEntityData;
+  @Setter(AccessLevel.PACKAGE)
+  protected       boolean     hasEntities;
+  @Setter(AccessLevel.PACKAGE)
+  protected       NBTCompound entityData;
+  @Setter(AccessLevel.PACKAGE)
+  protected       NBTCompound extraData;
 
   // Chunk storage
-  protected       ChunkData[]                       chunkArray;
-  protected final Map<ChunkCoordinates, SlimeChunk> chunks = new HashMap<>();
+  @Builder.Default
+  protected final ChunkLoadMode chunkLoadMode = ChunkLoadMode.EAGER;
+  @Builder.Default
+  protected final int           parallelism   = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * Every chunk in the world, indexed the same as the {@link #chunkBitmask}. Chunks that have not been decoded yet (or are missing) are null.
+   * Chunks are read from this without any lock, so {@link ChunkLoadMode#LAZY lazily} decoded chunks are safely published to every thread
+   */
+  protected AtomicReferenceArray<ChunkData> chunkArray;
+
+  /**
+   * The number of chunks that have been decoded into the {@link #chunkArray}
+   */
+  protected final AtomicInteger decodedChunkCount = new AtomicInteger();
+
+  /**
+   * The position of each chunk's data in {@link #rawChunkData}, indexed the same as the {@link #chunkBitmask}. Only used when chunks are loaded
+   * {@link ChunkLoadMode#LAZY lazily}, and set back to null once every chunk has been decoded
+   */
+  protected volatile int[] chunkOffsets;
+
+  /**
+   * The estimated heap used by chunks that have been decoded {@link ChunkLoadMode#LAZY lazily}, added to as each one is decoded so that it never
+   * has to be recomputed (see {@link HeapEstimates#ofLazilyDecodedChunks(SlimeWorld)})
+   */
+  protected final AtomicLong lazyChunkHeapSize = new AtomicLong();
+
+  /**
+   * Where the time spent decoding chunks is recorded, or null if it should not be recorded
+   */
+  @Getter
+  @Nullable
+  protected final SlimeLoadMetrics loadMetrics;
 
   /**
    * @return The lowest chunk X coordinate in the world
@@ -109,10 +156,10 @@ public class BinarySlimeWorld implements SlimeWorld {
    */
   @Override
   public @NotNull NBTList getEntities() {
-    if (hasEntities() && tileEntityData != null) {
-      Object tileList = tileEntityData.get(".entities");
-      if (tileList instanceof NBTList) {
-        return (NBTList) tileList;
+    if (hasEntities() && entityData != null) {
+      Object entityList = entityData.get(".entities");
+      if (entityList instanceof NBTList) {
+        return (NBTList) entityList;
       }
     }
     // Fall-back to an empty compound list
@@ -130,6 +177,19 @@ public class BinarySlimeWorld implements SlimeWorld {
     return new NBTCompound();
   }
 
+  /**
+   * @param x X-coordinate of a block
+   * @param z Z-coordinate of a block
+   * @return The Y-coordinate of the highest non-air block in the column, or -1 if there is none
+   */
+  @Override
+  public int getHighestBlockYAt(int x, int z) {
+    SlimeChunk chunk = getChunkAtBlock(x, z);
+    return chunk != null
+        ? chunk.getHighestBlockYAt(x & 0x0F, z & 0x0F)
+        : -1;
+  }
+
   /**
    * @param x X-coordinate of the chunk (in chunk coordinates)
    * @param z Z-coordinate of the chunk (in chunk coordinates)
@@ -140,6 +200,15 @@ public class BinarySlimeWorld implements SlimeWorld {
     return isChunkEmpty(flattenChunkCoords(x, z));
   }
 
+  /**
+   * @param chunkKey Packed coordinates of the chunk (see {@link CoordinateKeys#chunkKey(int, int)})
+   * @return Whether or not the requested chunk is all air blocks
+   */
+  @Override
+  public boolean isChunkEmpty(long chunkKey) {
+    return isChunkEmpty(CoordinateKeys.chunkX(chunkKey), CoordinateKeys.chunkZ(chunkKey));
+  }
+
   private boolean isChunkEmpty(int chunkIndex) {
     return chunkBitmask == null
         || chunkIndex == -1
@@ -151,9 +220,29 @@ public class BinarySlimeWorld implements SlimeWorld {
    */
   @Override
   public @NotNull List<SlimeChunk> getAllChunks() {
-    return chunkArray != null
-        ? Arrays.asList(chunkArray)
-        : Collections.emptyList();
+    AtomicReferenceArray<ChunkData> chunks = chunkArray;
+    if (chunks == null) {
+      return Collections.emptyList();
+    }
+
+    if (chunkOffsets != null) {
+      for (int i = 0; i < chunks.length(); i++) {
+        if (!isChunkEmpty(i)) {
+          getChunk(i);
+        }
+      }
+    }
+    return new AbstractList<SlimeChunk>() {
+      @Override
+      public SlimeChunk get(int index) {
+        return chunks.get(index);
+      }
+
+      @Override
+      public int size() {
+        return chunks.length();
+      }
+    };
   }
 
   /**
@@ -166,7 +255,76 @@ public class BinarySlimeWorld implements SlimeWorld {
     int chunkIndex = flattenChunkCoords(x, z);
     return isChunkEmpty(chunkIndex)
         ? null
-        : chunkArray[chunkIndex];
+        : getChunk(chunkIndex);
+  }
+
+  /**
+   * @param chunkKey Packed coordinates of the chunk (see {@link CoordinateKeys#chunkKey(int, int)})
+   * @return The chunk at the provided chunk coordinates
+   */
+  @Override
+  public @Nullable SlimeChunk getChunk(long chunkKey) {
+    return getChunk(CoordinateKeys.chunkX(chunkKey), CoordinateKeys.chunkZ(chunkKey));
+  }
+
+  /**
+   * Get the chunk at the provided bitmask index, decoding it first if it has not been yet
+   */
+  private ChunkData getChunk(int chunkIndex) {
+    ChunkData chunk = chunkArray.get(chunkIndex);
+    return chunk != null
+        ? chunk
+        : decodeChunkLazily(chunkIndex);
+  }
+
+  /**
+   * Decode the chunk at the provided bitmask index from {@link #rawChunkData}, if this world decodes chunks {@link ChunkLoadMode#LAZY lazily}.
+   * No lock is held while the chunk is decoded, so readers of other chunks never wait for it. If multiple threads decode the same chunk at once, the
+   * first one to finish is kept and the rest are thrown away
+   *
+   * @return The decoded chunk, or null if the chunk is missing
+   * @throws UncheckedIOException If the chunk's data could not be read
+   */
+  private ChunkData decodeChunkLazily(int chunkIndex) {
+    int[] offsets = chunkOffsets;
+    ByteBuffer raw = rawChunkData;
+    if (offsets == null || raw == null) {
+      // Either chunks aren't decoded lazily, or every chunk was decoded since this thread last checked
+      return chunkArray.get(chunkIndex);
+    }
+
+    long startTime = System.nanoTime();
+    ChunkData chunk = decodeChunk(raw, chunkIndex, offsets[chunkIndex]);
+    if (!chunkArray.compareAndSet(chunkIndex, null, chunk)) {
+      return chunkArray.get(chunkIndex);
+    }
+    recordChunkDecode(startTime, 1);
+    lazyChunkHeapSize.addAndGet(HeapEstimates.ofChunk(chunk));
+
+    // Once every chunk has been decoded, the raw data and offsets are no longer needed
+    if (decodedChunkCount.incrementAndGet() == chunkBitmask.cardinality()) {
+      chunkOffsets = null;
+      rawChunkData = null;
+    }
+    return chunk;
+  }
+
+  /**
+   * Decode a single chunk from the world's raw chunk data
+   *
+   * @param raw        The world's {@link #rawChunkData}
+   * @param chunkIndex The chunk's index in the {@link #chunkBitmask}
+   * @param offset     The position of the chunk's first byte in {@code raw}
+   * @throws UncheckedIOException If the chunk's data could not be read
+   */
+  private ChunkData decodeChunk(ByteBuffer raw, int chunkIndex, int offset) {
+    ByteBuffer in = raw.duplicate();
+    in.position(offset);
+    try {
+      return ChunkBufferReader.readChunk(in, this, new ChunkCoordinates(chunkIndex % width + minChunkX, chunkIndex / width + minChunkZ));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to decode slime chunk at index " + chunkIndex, e);
+    }
   }
 
   /**
@@ -176,7 +334,15 @@ public class BinarySlimeWorld implements SlimeWorld {
    */
   @Override
   public @Nullable SlimeChunk getChunkAtBlock(int x, int z) {
-    return getChunk((int) Math.floor(x / 16d), (int) Math.floor(z / 16d));
+    return getChunk(x >> 4, z >> 4);
+  }
+
+  /**
+   * @return A new cursor for reading blocks in this world, starting at (0, 0, 0)
+   */
+  @Override
+  public @NotNull BlockCursor newCursor() {
+    return new BlockCursor(this);
   }
 
   /**
@@ -194,10 +360,8 @@ public class BinarySlimeWorld implements SlimeWorld {
 
     if (chunk != null) {
       // Get the block from it's relative coordinates within the chunk (x & z between 0 and 15)
-      int relX = x % 16;
-      int relZ = z % 16;
-      relX = (relX >= 0 ? relX : 16 + relX);
-      relZ = (relZ >= 0 ? relZ : 16 + relZ);
+      int relX = x & 0x0F;
+      int relZ = z & 0x0F;
       return chunk.getBlockAt(relX, y, relZ);
     }
     return BlockData.AIR;
@@ -213,14 +377,12 @@ public class BinarySlimeWorld implements SlimeWorld {
    */
   @Override
   public byte getBlockLightAt(int x, int y, int z) {
-    SlimeChunk chunk = getChunk(x, z);
+    SlimeChunk chunk = getChunkAtBlock(x, z);
 
     if (chunk != null) {
       // Get the block from it's relative coordinates within the chunk (x & z between 0 and 15)
-      int relX = x % 16;
-      int relZ = z % 16;
-      relX = (relX >= 0 ? relX : 16 + relX);
-      relZ = (relZ >= 0 ? relZ : 16 + relZ);
+      int relX = x & 0x0F;
+      int relZ = z & 0x0F;
       return chunk.getBlockLightAt(relX, y, relZ);
     }
     return 0;
@@ -236,14 +398,12 @@ public class BinarySlimeWorld implements SlimeWorld {
    */
   @Override
   public byte getSkyLightAt(int x, int y, int z) {
-    SlimeChunk chunk = getChunk(x, z);
+    SlimeChunk chunk = getChunkAtBlock(x, z);
 
     if (chunk != null) {
       // Get the block from it's relative coordinates within the chunk (x & z between 0 and 15)
-      int relX = x % 16;
-      int relZ = z % 16;
-      relX = (relX >= 0 ? relX : 16 + relX);
-      relZ = (relZ >= 0 ? relZ : 16 + relZ);
+      int relX = x & 0x0F;
+      int relZ = z & 0x0F;
       return chunk.getSkyLightAt(relX, y, relZ);
     }
     return 0;
@@ -282,31 +442,150 @@ public class BinarySlimeWorld implements SlimeWorld {
   }
 
   BinarySlimeWorld loadChunkData() throws IOException {
-    if (!chunks.isEmpty()) {
+    if (chunkArray != null || rawChunkData == null) {
       return this;
     }
 
-    chunkArray = new ChunkData[chunkBitmask.size()];
-    try (SlimeInputStream in = new SlimeInputStream(new ByteArrayInputStream(rawChunkData))) {
-      for (int i = 0; i < chunkBitmask.size(); i++) {
-        if (!chunkBitmask.get(i)) {
-          continue;
-        }
-        // Read the chunk's bytes
-        setChunk(i, in.readChunk(this, new ChunkCoordinates(i % width + minChunkX, i / width + minChunkZ)));
+    chunkArray = new AtomicReferenceArray<>(chunkBitmask.size());
+    if (chunkLoadMode == ChunkLoadMode.LAZY) {
+      chunkOffsets = indexChunkData();
+      return this;
+    }
+
+    long startTime = System.nanoTime();
+    if (chunkLoadMode == ChunkLoadMode.PARALLEL) {
+      loadChunkDataInParallel();
+      rawChunkData = null;
+      recordChunkDecode(startTime, decodedChunkCount.get());
+      return this;
+    }
+
+    ByteBuffer in = rawChunkData.duplicate();
+    for (int i = 0; i < chunkBitmask.size(); i++) {
+      if (!chunkBitmask.get(i)) {
+        continue;
       }
+      // Read the chunk's bytes
+      setChunk(i, ChunkBufferReader.readChunk(in, this, new ChunkCoordinates(i % width + minChunkX, i / width + minChunkZ)));
     }
+
+    // Every chunk has been decoded, so the raw data is no longer needed
+    rawChunkData = null;
+    recordChunkDecode(startTime, decodedChunkCount.get());
     return this;
   }
 
+  /**
+   * Decode every chunk in the world, one after the other, from an uncompressed stream of chunk data
+   *
+   * @param in Stream to read chunks from. Only the world's chunks are read from it
+   * @throws IOException If the chunks could not be read
+   */
+  BinarySlimeWorld loadChunkData(SlimeInputStream in) throws IOException {
+    long startTime = System.nanoTime();
+    chunkArray = new AtomicReferenceArray<>(chunkBitmask.size());
+    for (int i = 0; i < chunkBitmask.size(); i++) {
+      if (!chunkBitmask.get(i)) {
+        continue;
+      }
+      setChunk(i, in.readChunk(this, new ChunkCoordinates(i % width + minChunkX, i / width + minChunkZ)));
+    }
+    recordChunkDecode(startTime, decodedChunkCount.get());
+    return this;
+  }
+
+  /**
+   * Decode every chunk at once, split between {@link #parallelism} threads
+   */
+  private void loadChunkDataInParallel() throws IOException {
+    int[] offsets = indexChunkData();
+    int[] chunkIndices = chunkBitmask.stream().toArray();
+
+    ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+    try {
+      pool.invoke(new ParallelChunkDecoder(chunkIndices, offsets, 0, chunkIndices.length));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    } finally {
+      pool.shutdown();
+    }
+
+    decodedChunkCount.set(chunkIndices.length);
+  }
+
+  /**
+   * Find the position of each chunk in {@link #rawChunkData} without decoding any of them
+   *
+   * @return The offset of each chunk in {@link #rawChunkData}, indexed the same as the {@link #chunkBitmask} (-1 for missing chunks)
+   */
+  private int[] indexChunkData() throws IOException {
+    int[] offsets = new int[chunkBitmask.size()];
+    Arrays.fill(offsets, -1);
+
+    ByteBuffer in = rawChunkData.duplicate();
+    for (int i = 0; i < chunkBitmask.size(); i++) {
+      if (!chunkBitmask.get(i)) {
+        continue;
+      }
+      offsets[i] = in.position();
+      ChunkBufferReader.skipChunk(in);
+    }
+    return offsets;
+  }
+
+  /**
+   * Record the time since {@code startTime} (from {@link System#nanoTime()}) as time spent decoding chunks, if this world has {@link #loadMetrics}
+   */
+  private void recordChunkDecode(long startTime, int chunks) {
+    if (loadMetrics != null) {
+      loadMetrics.recordChunkDecode(System.nanoTime() - startTime, chunks);
+    }
+  }
+
   /**
    * Set the chunk object at the provided bitmask index
    */
   private void setChunk(int bitmaskIndex, ChunkData chunk) {
-    ChunkCoordinates coords = new ChunkCoordinates(
-        bitmaskIndex % width + minChunkX,
-        bitmaskIndex / width + minChunkZ);
-    chunkArray[bitmaskIndex] = chunk;
-    chunks.put(coords, chunk);
+    chunkArray.set(bitmaskIndex, chunk);
+    decodedChunkCount.incrementAndGet();
+  }
+
+  /**
+   * Decodes a range of chunks into the {@link #chunkArray}, splitting the range between threads when it is large
+   */
+  private class ParallelChunkDecoder extends RecursiveAction {
+
+    /**
+     * Ranges with this many chunks or fewer are decoded by a single thread
+     */
+    private static final int THRESHOLD = 16;
+
+    private final int[] chunkIndices;
+    private final int[] offsets;
+    private final int   start;
+    private final int   end;
+
+    ParallelChunkDecoder(int[] chunkIndices, int[] offsets, int start, int end) {
+      this.chunkIndices = chunkIndices;
+      this.offsets = offsets;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    protected void compute() {
+      if (end - start <= THRESHOLD) {
+        for (int i = start; i < end; i++) {
+          int chunkIndex = chunkIndices[i];
+          chunkArray.set(chunkIndex, decodeChunk(rawChunkData, chunkIndex, offsets[chunkIndex]));
+        }
+        return;
+      }
+
+      int middle = (start + end) >>> 1;
+      invokeAll(
+          new ParallelChunkDecoder(chunkIndices, offsets, start, middle),
+          new ParallelChunkDecoder(chunkIndices, offsets, middle, end));
+    }
   }
-}
\ No newline at end of file
+}
@@ -2,23 +2,49 @@ package me.nullicorn.slimeball.slime;
 
 import de.themoep.idconverter.IdMappings;
 import de.themoep.idconverter.IdMappings.Mapping;
-import java.util.Objects;
 import me.nullicorn.slimeball.slime.api.SlimeBlockState;
 
 /**
- * Represents the state of a block stored in a slime file
+ * Represents the state of a block stored in a slime file. Instances are interned; use {@link #of(byte, byte)} to get the shared instance for a
+ * legacy block ID and state
  *
  * @author Nullicorn
  */
-public class BlockData implements SlimeBlockState {
+public final class BlockData implements SlimeBlockState {
 
-  public static final  SlimeBlockState AIR         = new BlockData((byte) 0, (byte) 0);
-  private static final Mapping         AIR_MAPPING = IdMappings.getById("0:0");
+  private static final Mapping     AIR_MAPPING = IdMappings.getById("0:0");
+  private static final BlockData[] ALL_STATES  = new BlockData[256 * 16];
+
+  static {
+    for (int legacyId = 0; legacyId < 256; legacyId++) {
+      for (int legacyState = 0; legacyState < 16; legacyState++) {
+        ALL_STATES[(legacyId << 4) | legacyState] = new BlockData(legacyId, legacyState);
+      }
+    }
+  }
+
+  public static final SlimeBlockState AIR = of((byte) 0, (byte) 0);
 
   private final Mapping id;
   private final byte    state;
 
-  public BlockData(byte id, byte state) {
+  /**
+   * The resolved legacy ID and state of this block, packed as {@code (legacyId << 4) | legacyState}
+   */
+  private final int key;
+
+  /**
+   * Get the shared block data for a legacy block ID and state. This does not allocate anything, so it is safe to call for every block in a chunk
+   *
+   * @param id    Legacy numeric block ID (0 to 255)
+   * @param state Legacy block state (0 to 15)
+   * @return The interned block data for that ID and state
+   */
+  public static BlockData of(byte id, byte state) {
+    return ALL_STATES[((id & 0xFF) << 4) | (state & 0x0F)];
+  }
+
+  private BlockData(int id, int state) {
     Mapping idMapping = IdMappings.getById(id + ":" + state);
     if (idMapping == null) {
       // If the block's state is not mapped to it's own block (such as yellow_wool), ignore it.
@@ -33,8 +59,9 @@ public class BlockData implements SlimeBlockState {
 
     this.id = idMapping;
     this.state = (idMapping.getData() == 0)
-        ? state
+        ? (byte) state
         : (byte) idMapping.getData();
+    this.key = ((idMapping.getNumericId() & 0xFF) << 4) | (this.state & 0x0F);
   }
 
   /**
@@ -88,11 +115,11 @@ public class BlockData implements SlimeBlockState {
       return false;
     }
     BlockData blockData = (BlockData) o;
-    return Objects.equals(getId(), blockData.getId());
+    return key == blockData.key;
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(getId());
+    return key;
   }
 }
\ No newline at end of file
@@ -0,0 +1,181 @@
+package me.nullicorn.slimeball.slime;
+
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+import me.nullicorn.slimeball.slime.api.ChunkCoordinates;
+import me.nullicorn.slimeball.slime.api.ChunkSectionCoordinates;
+import me.nullicorn.slimeball.slime.api.NibbleArray;
+import me.nullicorn.slimeball.slime.api.SlimeWorld;
+import me.nullicorn.slimeball.slime.jfr.SlimeEvents;
+
+/**
+ * Reads uncompressed chunk data directly from a {@link ByteBuffer}. The format is the same as the one read by {@link SlimeInputStream#readChunk(SlimeWorld,
+ * ChunkCoordinates)}
+ *
+ * @author Nullicorn
+ */
+final class ChunkBufferReader {
+
+  /**
+   * The number of bytes used by a chunk's heightmap and biome grid
+   */
+  private static final int CHUNK_HEADER_LENGTH = (256 * 4) + 256;
+
+  /**
+   * The number of bytes used by a section's block light, block IDs, block states & sky light
+   */
+  private static final int SECTION_BLOCKS_LENGTH = 2048 + 4096 + 2048 + 2048;
+
+  /**
+   * Read a chunk column (16 sections) from the buffer, starting at the buffer's position
+   *
+   * @param coordinates The coordinates that the read chunk is located at
+   * @return Chunk column read from the buffer
+   * @throws EOFException If the buffer ends before the chunk does
+   */
+  static ChunkData readChunk(ByteBuffer in, SlimeWorld file, ChunkCoordinates coordinates) throws EOFException {
+    Object chunkReadEvent = SlimeEvents.beginChunkRead();
+    ChunkData chunk = new ChunkData(file, coordinates);
+    require(in, CHUNK_HEADER_LENGTH + 2);
+
+    // Heightmap
+    int[] heightmap = new int[256];
+    for (int i = 0; i < heightmap.length; i++) {
+      heightmap[i] = in.getInt();
+    }
+
+    // Biome grid
+    byte[] biomes = new byte[256];
+    in.get(biomes);
+
+    // Chunk section bitmask & section data
+    BitSet sectionBitmask = readSectionBitmask(in);
+    ChunkSectionData[] sections = new ChunkSectionData[16];
+    for (int i = 0; i < sections.length; i++) {
+      if (!sectionBitmask.get(i)) {
+        continue;
+      }
+      sections[i] = readChunkSection(in, chunk, i);
+    }
+
+    chunk.setHeightmap(heightmap);
+    chunk.setBiomes(biomes);
+    chunk.setSectionBitmask(sectionBitmask);
+    chunk.setSections(sections);
+    SlimeEvents.endChunkRead(chunkReadEvent, coordinates.getX(), coordinates.getZ(), sectionBitmask.cardinality());
+    return chunk;
+  }
+
+  /**
+   * Read a chunk section (16x16x16 blocks) from the buffer, starting at the buffer's position
+   *
+   * @param column   The chunk column that this section is apart of
+   * @param sectionY The index of this chunk in its column (0 being the bottom section and 15 being the top)
+   * @return Chunk section read from the buffer
+   * @throws EOFException If the buffer ends before the section does
+   */
+  static ChunkSectionData readChunkSection(ByteBuffer in, ChunkData column, int sectionY) throws EOFException {
+    ChunkSectionData section = new ChunkSectionData(column, new ChunkSectionCoordinates(column.getCoordinates(), sectionY));
+    require(in, SECTION_BLOCKS_LENGTH + 2);
+
+    // Block & light data
+    NibbleArray blockLight = readNibbleArray(in);
+    if (isUniform(in, 4096)) {
+      section.setUniformBlockId(in.get(in.position()));
+      in.position(in.position() + 4096);
+    } else {
+      byte[] blockIds = new byte[4096];
+      in.get(blockIds);
+      section.setBlockIds(blockIds);
+    }
+    NibbleArray blockStates = readNibbleArray(in);
+    NibbleArray skyLight = readNibbleArray(in);
+
+    // HypixelBlocks3 (format unknown; skip)
+    skip(in, in.getShort() & 0xFFFF);
+
+    section.setBlockStates(blockStates);
+    section.setBlockLight(blockLight);
+    section.setSkyLight(skyLight);
+    return section;
+  }
+
+  /**
+   * Move the buffer's position past a chunk column (16 sections) without decoding it
+   *
+   * @return The number of bytes that the chunk took up in the buffer
+   * @throws EOFException If the buffer ends before the chunk does
+   */
+  static int skipChunk(ByteBuffer in) throws EOFException {
+    int start = in.position();
+    skip(in, CHUNK_HEADER_LENGTH);
+
+    require(in, 2);
+    BitSet sectionBitmask = readSectionBitmask(in);
+    for (int i = 0; i < 16; i++) {
+      if (!sectionBitmask.get(i)) {
+        continue;
+      }
+      skip(in, SECTION_BLOCKS_LENGTH);
+      require(in, 2);
+      skip(in, in.getShort() & 0xFFFF);
+    }
+    return in.position() - start;
+  }
+
+  /**
+   * Throw an {@link EOFException} if the buffer has fewer than the provided number of bytes remaining
+   */
+  static void require(ByteBuffer in, int length) throws EOFException {
+    if (in.remaining() < length) {
+      throw new EOFException("Unexpectedly reached end of slime data");
+    }
+  }
+
+  /**
+   * Move the buffer's position forward by the provided number of bytes
+   */
+  static void skip(ByteBuffer in, int length) throws EOFException {
+    require(in, length);
+    in.position(in.position() + length);
+  }
+
+  /**
+   * Read 2048 bytes of packed nibbles. If every nibble is the same, a shared {@link NibbleArray#uniform(byte) uniform} array is returned without
+   * copying the bytes out of the buffer
+   */
+  private static NibbleArray readNibbleArray(ByteBuffer in) {
+    byte first = in.get(in.position());
+    if ((first & 0x0F) == ((first >> 4) & 0x0F) && isUniform(in, 2048)) {
+      in.position(in.position() + 2048);
+      return NibbleArray.uniform(first);
+    }
+
+    byte[] nibbleArrayBytes = new byte[2048];
+    in.get(nibbleArrayBytes);
+    return new NibbleArray(nibbleArrayBytes);
+  }
+
+  /**
+   * @return Whether or not the next bytes in the buffer are all the same. The buffer's position is unchanged
+   */
+  private static boolean isUniform(ByteBuffer in, int length) {
+    int start = in.position();
+    byte first = in.get(start);
+    for (int i = start + 1; i < start + length; i++) {
+      if (in.get(i) != first) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static BitSet readSectionBitmask(ByteBuffer in) {
+    int bitmask = (in.get() & 0xFF) | ((in.get() & 0xFF) << 8);
+    return BitSet.valueOf(new long[]{bitmask});
+  }
+
+  private ChunkBufferReader() {
+  }
+}
@@ -1,12 +1,17 @@
 package me.nullicorn.slimeball.slime;
 
+import java.util.Arrays;
 import java.util.BitSet;
+import lombok.AccessLevel;
 import lombok.Setter;
+import me.nullicorn.slimeball.slime.api.BlockVisitor;
 import me.nullicorn.slimeball.slime.api.ChunkCoordinates;
 import me.nullicorn.slimeball.slime.api.SlimeBlockState;
 import me.nullicorn.slimeball.slime.api.SlimeChunk;
+import me.nullicorn.slimeball.slime.api.SlimeChunkSection;
 import me.nullicorn.slimeball.slime.api.SlimeWorld;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Represents a Minecraft chunk column made up of 16 {@link ChunkSectionData chunk sections} stacked on top of each other
@@ -29,12 +34,14 @@ public class ChunkData implements SlimeChunk {
   protected final ChunkCoordinates coordinates;
 
   /**
-   * The height of the highest non-air block for each x and z position inside this chunk column
+   * The lowest Y-coordinate that sky light fully reaches for each x and z position inside this chunk column (one above the highest block that light
+   * cannot pass through), indexed by {@code (z * 16) + x}
    */
   protected int[] heightmap;
 
   /**
-   * The biome ID for each x and z position inside this chunk
+   * The biome ID for each x and z position inside this chunk, indexed by {@code (z * 16) + x} (the same as the {@link #heightmap} and vanilla's
+   * legacy biome array)
    */
   protected byte[] biomes;
 
@@ -53,6 +60,13 @@ public class ChunkData implements SlimeChunk {
    */
   protected ChunkSectionData[] sections;
 
+  /**
+   * The {@link #getHighestBlockYAt(int, int) highest block} in each column, indexed by {@code (z * 16) + x}, or null if it has not been needed yet.
+   * Decoded chunks are never changed (copy-on-write worlds copy a section before writing to it), so this is only found once
+   */
+  @Setter(AccessLevel.NONE)
+  private volatile int[] surface;
+
   /**
    * @param world       See {@link #world}
    * @param coordinates See {@link #coordinates}
@@ -86,7 +100,50 @@ public class ChunkData implements SlimeChunk {
   @Override
   public byte getBiomeAt(int x, int z) {
     checkCoordinates(x, 0, z);
-    return biomes[(x * 16) + z];
+    return biomes[(z * 16) + x];
+  }
+
+  /**
+   * Get the highest non-air block in a column. Every column is found from the blocks the first time this is called, and remembered after that
+   *
+   * @param x X-coordinate (0 to 15) of the column
+   * @param z Z-coordinate (0 to 15) of the column
+   * @return The Y-coordinate (0 to 255) of the highest non-air block in the column, or -1 if the column is all air
+   */
+  @Override
+  public int getHighestBlockYAt(int x, int z) {
+    checkCoordinates(x, 0, z);
+    return getSurface()[(z * 16) + x];
+  }
+
+  /**
+   * Get the {@link #getHighestBlockYAt(int, int) highest block} in every column of the chunk at once
+   *
+   * @param destination Array to copy the 256 heights into, indexed by {@code (z * 16) + x}
+   */
+  @Override
+  public void copySurface(@NotNull int[] destination) {
+    checkSurfaceDestination(destination);
+    System.arraycopy(getSurface(), 0, destination, 0, 256);
+  }
+
+  /**
+   * @return The {@link #surface} of this chunk, finding it first if it hasn't been yet
+   */
+  private int[] getSurface() {
+    int[] surface = this.surface;
+    if (surface == null) {
+      // The heightmap can't be used here, since it ignores blocks that light passes through (glass, leaves...)
+      // Threads that race to find the surface all find the same one, so there's no need to lock
+      surface = new int[256];
+      for (int z = 0; z < 16; z++) {
+        for (int x = 0; x < 16; x++) {
+          surface[(z * 16) + x] = findHighestBlockY(this, x, z);
+        }
+      }
+      this.surface = surface;
+    }
+    return surface;
   }
 
   /**
@@ -146,6 +203,111 @@ public class ChunkData implements SlimeChunk {
     return 0;
   }
 
+  /**
+   * @return Whether or not every section in this chunk column is missing
+   */
+  @Override
+  public boolean isEmpty() {
+    return sectionBitmask == null || sectionBitmask.isEmpty();
+  }
+
+  /**
+   * @param sectionY Index of the section in this column (0 being the bottom section and 15 being the top)
+   * @return Whether or not the section is stored in this chunk column
+   */
+  @Override
+  public boolean hasSection(int sectionY) {
+    return !sectionIsEmpty(sectionY);
+  }
+
+  /**
+   * @param sectionY Index of the section in this column (0 being the bottom section and 15 being the top)
+   * @return The section at that index, or null if the section is not stored (all air)
+   */
+  @Override
+  public @Nullable SlimeChunkSection getSection(int sectionY) {
+    return sectionIsEmpty(sectionY)
+        ? null
+        : sections[sectionY];
+  }
+
+  /**
+   * Copy the legacy block ID of every block in this column into an array, in YZX order. Missing sections are copied as air
+   *
+   * @param destination Array to copy the 65536 block IDs into
+   */
+  @Override
+  public void copyLegacyBlockIds(@NotNull byte[] destination) {
+    checkBulkDestination(destination);
+    for (int sectionY = 0; sectionY < 16; sectionY++) {
+      if (sectionIsEmpty(sectionY)) {
+        Arrays.fill(destination, sectionY * 4096, (sectionY + 1) * 4096, (byte) 0);
+      } else {
+        sections[sectionY].copyLegacyBlockIds(destination, sectionY * 4096);
+      }
+    }
+  }
+
+  /**
+   * Copy the legacy block state (0 to 15) of every block in this column into an array, in YZX order. Missing sections are copied as 0
+   *
+   * @param destination Array to copy the 65536 block states into
+   */
+  @Override
+  public void copyLegacyBlockStates(@NotNull byte[] destination) {
+    checkBulkDestination(destination);
+    for (int sectionY = 0; sectionY < 16; sectionY++) {
+      if (sectionIsEmpty(sectionY)) {
+        Arrays.fill(destination, sectionY * 4096, (sectionY + 1) * 4096, (byte) 0);
+      } else {
+        sections[sectionY].copyLegacyBlockStates(destination, sectionY * 4096);
+      }
+    }
+  }
+
+  /**
+   * Call the visitor for each block in this column that is not air, from the bottom section to the top
+   *
+   * @param visitor Callback to pass each block's coordinates (y from 0 to 255) and state to
+   */
+  @Override
+  public void forEachNonAir(@NotNull BlockVisitor visitor) {
+    for (int sectionY = 0; sectionY < 16; sectionY++) {
+      if (!sectionIsEmpty(sectionY)) {
+        sections[sectionY].forEachNonAir(visitor, sectionY * 16);
+      }
+    }
+  }
+
+  /**
+   * Find the highest non-air block in a column by checking each block from the top down. Missing sections are skipped
+   *
+   * @return The Y-coordinate (0 to 255) of the highest non-air block in the column, or -1 if the column is all air
+   */
+  static int findHighestBlockY(SlimeChunk chunk, int x, int z) {
+    for (int sectionY = 15; sectionY >= 0; sectionY--) {
+      SlimeChunkSection section = chunk.getSection(sectionY);
+      if (section == null) {
+        continue;
+      }
+      for (int y = 15; y >= 0; y--) {
+        if (section.getBlockAt(x, y, z).getLegacyId() != 0) {
+          return (sectionY * 16) + y;
+        }
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Throw an {@link IndexOutOfBoundsException} if the provided array is too short to hold the height of every column in a chunk
+   */
+  static void checkSurfaceDestination(int[] destination) {
+    if (destination.length < 256) {
+      throw new IndexOutOfBoundsException("Destination must be at least 256 ints long (was " + destination.length + ")");
+    }
+  }
+
   /**
    * @param y Index of the section in the bitmask
    * @return Whether or not the section is empty (all air blocks)
@@ -158,6 +320,15 @@ public class ChunkData implements SlimeChunk {
         || sections[y] == null;
   }
 
+  /**
+   * Throw an {@link IndexOutOfBoundsException} if the provided array is too short to hold every block in this chunk
+   */
+  private void checkBulkDestination(byte[] destination) {
+    if (destination.length < 16 * 4096) {
+      throw new IndexOutOfBoundsException("Destination must be at least 65536 bytes long (was " + destination.length + ")");
+    }
+  }
+
   /**
    * Throw an {@link IndexOutOfBoundsException} if the provided coordinates are outside the bounds of this chunk
    */
@@ -0,0 +1,31 @@
+package me.nullicorn.slimeball.slime;
+
+/**
+ * Controls when the chunks in a slime file are decoded into {@link ChunkData} objects
+ *
+ * @author Nullicorn
+ */
+public enum ChunkLoadMode {
+
+  /**
+   * Every chunk in the file is decoded while the file is being read
+   */
+  EAGER,
+
+  /**
+   * Only the position of each chunk is indexed while the file is being read. Chunks are decoded the first time they are requested from the world
+   */
+  LAZY,
+
+  /**
+   * Every chunk in the file is decoded while the file is being read, split between multiple threads. The resulting world is identical to one
+   * loaded {@link #EAGER eagerly}
+   */
+  PARALLEL,
+
+  /**
+   * Every chunk in the file is decoded while it is being decompressed. The decompressed chunk data is never held in memory all at once, which
+   * keeps peak memory usage low while large files are read
+   */
+  STREAMING
+}
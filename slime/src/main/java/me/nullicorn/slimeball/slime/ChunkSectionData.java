@@ -1,6 +1,8 @@
 package me.nullicorn.slimeball.slime;
 
+import java.util.Arrays;
 import lombok.Setter;
+import me.nullicorn.slimeball.slime.api.BlockVisitor;
 import me.nullicorn.slimeball.slime.api.ChunkSectionCoordinates;
 import me.nullicorn.slimeball.slime.api.NibbleArray;
 import me.nullicorn.slimeball.slime.api.SlimeBlockState;
@@ -27,10 +29,16 @@ public class ChunkSectionData implements SlimeChunkSection {
   protected final ChunkSectionCoordinates coordinates;
 
   /**
-   * The legacy block ID for each block in this section (ordered YZX). Should be 4096 bytes long
+   * The legacy block ID for each block in this section (ordered YZX). Should be 4096 bytes long, or null if every block has the
+   * {@link #uniformBlockId}
    */
   protected byte[] blockIds;
 
+  /**
+   * The legacy block ID of every block in this section, if {@link #blockIds} is null
+   */
+  protected byte uniformBlockId;
+
   /**
    * The legacy block state (0-15) for each block in this section (ordered YZX)
    */
@@ -51,6 +59,21 @@ public class ChunkSectionData implements SlimeChunkSection {
     this.coordinates = coordinates;
   }
 
+  /**
+   * Set the legacy block ID for each block in this section. If every ID is the same, only that ID is kept
+   *
+   * @param blockIds The 4096 block IDs (ordered YZX), or null if every block is air
+   */
+  public void setBlockIds(byte[] blockIds) {
+    if (blockIds != null && isUniform(blockIds)) {
+      this.blockIds = null;
+      this.uniformBlockId = blockIds[0];
+    } else {
+      this.blockIds = blockIds;
+      this.uniformBlockId = 0;
+    }
+  }
+
   /**
    * @return The chunk column that contains this section
    */
@@ -80,9 +103,9 @@ public class ChunkSectionData implements SlimeChunkSection {
   public @NotNull SlimeBlockState getBlockAt(int x, int y, int z) {
     int index = getYZXIndex(x, y, z);
 
-    byte blockId = (blockIds != null ? blockIds[index] : 0);
+    byte blockId = (blockIds != null ? blockIds[index] : uniformBlockId);
     byte blockState = (blockStates != null ? blockStates.get(index) : 0);
-    return new BlockData(blockId, blockState);
+    return BlockData.of(blockId, blockState);
   }
 
   /**
@@ -113,6 +136,184 @@ public class ChunkSectionData implements SlimeChunkSection {
     return skyLight != null ? skyLight.get(index) : 0;
   }
 
+  /**
+   * @return Whether or not every block in this section is air
+   */
+  @Override
+  public boolean isEmpty() {
+    if (blockIds == null) {
+      return uniformBlockId == 0;
+    }
+    for (byte blockId : blockIds) {
+      if (blockId != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Copy the legacy block ID of every block in this section into an array, in YZX order
+   *
+   * @param destination Array to copy the 4096 block IDs into
+   * @param offset      Index in the destination array to start copying at
+   */
+  @Override
+  public void copyLegacyBlockIds(@NotNull byte[] destination, int offset) {
+    if (blockIds != null) {
+      System.arraycopy(blockIds, 0, destination, offset, 4096);
+    } else {
+      Arrays.fill(destination, offset, offset + 4096, uniformBlockId);
+    }
+  }
+
+  /**
+   * Copy the legacy block state (0 to 15) of every block in this section into an array, in YZX order
+   *
+   * @param destination Array to copy the 4096 block states into
+   * @param offset      Index in the destination array to start copying at
+   */
+  @Override
+  public void copyLegacyBlockStates(@NotNull byte[] destination, int offset) {
+    if (blockStates != null) {
+      blockStates.copyTo(destination, offset);
+    } else {
+      Arrays.fill(destination, offset, offset + 4096, (byte) 0);
+    }
+  }
+
+  /**
+   * Call the visitor for each block in this section that is not air, in YZX order (x changes fastest)
+   *
+   * @param visitor Callback to pass each block's coordinates (0 to 15) and state to
+   */
+  @Override
+  public void forEachNonAir(@NotNull BlockVisitor visitor) {
+    forEachNonAir(visitor, 0);
+  }
+
+  /**
+   * Same as {@link #forEachNonAir(BlockVisitor)}, but with an offset added to the y-coordinate of each visited block
+   */
+  void forEachNonAir(@NotNull BlockVisitor visitor, int offsetY) {
+    if (blockIds == null && uniformBlockId == 0) {
+      return;
+    }
+    for (int index = 0; index < 4096; index++) {
+      byte blockId = (blockIds != null ? blockIds[index] : uniformBlockId);
+      if (blockId == 0) {
+        continue;
+      }
+      byte blockState = (blockStates != null ? blockStates.get(index) : 0);
+      visitor.visit(index & 0x0F, (index >> 8) + offsetY, (index >> 4) & 0x0F, BlockData.of(blockId, blockState));
+    }
+  }
+
+  /**
+   * Change the block at the provided coordinates (0 to 15)
+   */
+  void setBlockAt(int x, int y, int z, @NotNull SlimeBlockState block) {
+    int index = getYZXIndex(x, y, z);
+    if (blockIds == null) {
+      blockIds = new byte[4096];
+      Arrays.fill(blockIds, uniformBlockId);
+    }
+    blockStates = writable(blockStates);
+    blockIds[index] = block.getLegacyId();
+    blockStates.set(index, block.getLegacyState());
+  }
+
+  /**
+   * Change the block light level (0 to 15) at the provided coordinates (0 to 15)
+   */
+  void setBlockLightAt(int x, int y, int z, byte level) {
+    int index = getYZXIndex(x, y, z);
+    blockLight = writable(blockLight);
+    blockLight.set(index, level);
+  }
+
+  /**
+   * Change the sky light level (0 to 15) at the provided coordinates (0 to 15)
+   */
+  void setSkyLightAt(int x, int y, int z, byte level) {
+    int index = getYZXIndex(x, y, z);
+    skyLight = writable(skyLight);
+    skyLight.set(index, level);
+  }
+
+  /**
+   * Copy a section's blocks and light levels into a new section that does not share any modifiable arrays with it
+   *
+   * @param source      The section to copy
+   * @param chunkColumn The chunk column that the copy is in
+   * @return The copy of the section
+   */
+  static ChunkSectionData copyOf(@NotNull SlimeChunkSection source, @NotNull SlimeChunk chunkColumn) {
+    ChunkSectionData copy = new ChunkSectionData(chunkColumn, source.getCoordinates());
+
+    if (source instanceof ChunkSectionData) {
+      ChunkSectionData data = (ChunkSectionData) source;
+      copy.blockIds = data.blockIds != null ? data.blockIds.clone() : null;
+      copy.uniformBlockId = data.uniformBlockId;
+      copy.blockStates = copyOf(data.blockStates);
+      copy.blockLight = copyOf(data.blockLight);
+      copy.skyLight = copyOf(data.skyLight);
+      return copy;
+    }
+
+    byte[] blockIds = new byte[4096];
+    byte[] blockStates = new byte[4096];
+    source.copyLegacyBlockIds(blockIds, 0);
+    source.copyLegacyBlockStates(blockStates, 0);
+    copy.setBlockIds(blockIds);
+    copy.blockStates = new NibbleArray(new byte[2048]);
+    copy.blockLight = new NibbleArray(new byte[2048]);
+    copy.skyLight = new NibbleArray(new byte[2048]);
+    for (int index = 0; index < 4096; index++) {
+      int x = index & 0x0F;
+      int y = index >> 8;
+      int z = (index >> 4) & 0x0F;
+      copy.blockStates.set(index, blockStates[index]);
+      copy.blockLight.set(index, source.getBlockLightAt(x, y, z));
+      copy.skyLight.set(index, source.getSkyLightAt(x, y, z));
+    }
+    return copy;
+  }
+
+  /**
+   * @return A copy of the nibble array. Uniform arrays are not copied, since they are never modified in place
+   */
+  private static NibbleArray copyOf(NibbleArray nibbles) {
+    return nibbles != null && !nibbles.isUniform()
+        ? nibbles.copy()
+        : nibbles;
+  }
+
+  /**
+   * @return The nibble array if it can be modified, otherwise a modifiable copy of it (or a new array of zeroes if it is null)
+   */
+  private static NibbleArray writable(NibbleArray nibbles) {
+    if (nibbles == null) {
+      return new NibbleArray(new byte[2048]);
+    }
+    return nibbles.isUniform()
+        ? nibbles.copy()
+        : nibbles;
+  }
+
+  /**
+   * @return Whether or not every byte in the array is the same
+   */
+  static boolean isUniform(byte[] bytes) {
+    byte first = bytes[0];
+    for (int i = 1; i < bytes.length; i++) {
+      if (bytes[i] != first) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * @return The flattened index (in YZX order) for a block at the provided coordinates
    * @throws IllegalArgumentException If any of the coordinates are not between 0 and 15 (both inclusively)
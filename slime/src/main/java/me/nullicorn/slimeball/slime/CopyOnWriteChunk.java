@@ -0,0 +1,232 @@
+package me.nullicorn.slimeball.slime;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import me.nullicorn.slimeball.slime.api.BlockVisitor;
+import me.nullicorn.slimeball.slime.api.ChunkCoordinates;
+import me.nullicorn.slimeball.slime.api.ChunkSectionCoordinates;
+import me.nullicorn.slimeball.slime.api.SlimeBlockState;
+import me.nullicorn.slimeball.slime.api.SlimeChunk;
+import me.nullicorn.slimeball.slime.api.SlimeChunkSection;
+import me.nullicorn.slimeball.slime.api.SlimeWorld;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A chunk column in a {@link CopyOnWriteSlimeWorld} that has been modified. Sections that have not been modified are read from the template's
+ * chunk; modified sections are copies owned by this chunk
+ *
+ * @author Nullicorn
+ */
+class CopyOnWriteChunk implements SlimeChunk {
+
+  private final CopyOnWriteSlimeWorld world;
+  private final ChunkCoordinates      coordinates;
+
+  /**
+   * The template's chunk at the same coordinates, or null if the template does not have one
+   */
+  @Nullable
+  private final SlimeChunk template;
+
+  /**
+   * Sections that have been copied from the template (or created) so that they could be modified. Null entries are read from the template.
+   * Sections are only published here once they are fully copied, so readers that don't hold this chunk's lock never see a partial copy
+   */
+  private final AtomicReferenceArray<ChunkSectionData> copiedSections = new AtomicReferenceArray<>(16);
+
+  CopyOnWriteChunk(@NotNull CopyOnWriteSlimeWorld world, @NotNull ChunkCoordinates coordinates, @Nullable SlimeChunk template) {
+    this.world = world;
+    this.coordinates = coordinates;
+    this.template = template;
+  }
+
+  @Override
+  public @NotNull SlimeWorld getWorld() {
+    return world;
+  }
+
+  @Override
+  public @NotNull ChunkCoordinates getCoordinates() {
+    return coordinates;
+  }
+
+  @Override
+  public byte getBiomeAt(int x, int z) {
+    checkCoordinates(x, 0, z);
+    return template != null ? template.getBiomeAt(x, z) : 0;
+  }
+
+  @Override
+  public @NotNull SlimeBlockState getBlockAt(int x, int y, int z) {
+    checkCoordinates(x, y, z);
+    SlimeChunkSection section = getSection(y >> 4);
+    return section != null
+        ? section.getBlockAt(x, y & 0x0F, z)
+        : BlockData.AIR;
+  }
+
+  @Override
+  public byte getBlockLightAt(int x, int y, int z) {
+    checkCoordinates(x, y, z);
+    SlimeChunkSection section = getSection(y >> 4);
+    return section != null
+        ? section.getBlockLightAt(x, y & 0x0F, z)
+        : 0;
+  }
+
+  @Override
+  public byte getSkyLightAt(int x, int y, int z) {
+    checkCoordinates(x, y, z);
+    SlimeChunkSection section = getSection(y >> 4);
+    return section != null
+        ? section.getSkyLightAt(x, y & 0x0F, z)
+        : 0;
+  }
+
+  /**
+   * Modified chunks may no longer match the template's heightmap, so their heights are always found from their blocks
+   */
+  @Override
+  public int getHighestBlockYAt(int x, int z) {
+    checkCoordinates(x, 0, z);
+    if (!isModified()) {
+      return template != null ? template.getHighestBlockYAt(x, z) : -1;
+    }
+    return ChunkData.findHighestBlockY(this, x, z);
+  }
+
+  @Override
+  public void copySurface(@NotNull int[] destination) {
+    ChunkData.checkSurfaceDestination(destination);
+    if (!isModified()) {
+      if (template != null) {
+        template.copySurface(destination);
+      } else {
+        Arrays.fill(destination, 0, 256, -1);
+      }
+      return;
+    }
+    for (int z = 0; z < 16; z++) {
+      for (int x = 0; x < 16; x++) {
+        destination[(z * 16) + x] = ChunkData.findHighestBlockY(this, x, z);
+      }
+    }
+  }
+
+  @Override
+  public boolean isEmpty() {
+    for (int sectionY = 0; sectionY < 16; sectionY++) {
+      if (hasSection(sectionY)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean hasSection(int sectionY) {
+    return getSection(sectionY) != null;
+  }
+
+  @Override
+  public @Nullable SlimeChunkSection getSection(int sectionY) {
+    if (sectionY < 0 || sectionY > 15) {
+      return null;
+    }
+
+    ChunkSectionData copied = copiedSections.get(sectionY);
+    if (copied != null) {
+      return copied;
+    }
+    return template != null ? template.getSection(sectionY) : null;
+  }
+
+  @Override
+  public void copyLegacyBlockIds(@NotNull byte[] destination) {
+    checkBulkDestination(destination);
+    for (int sectionY = 0; sectionY < 16; sectionY++) {
+      SlimeChunkSection section = getSection(sectionY);
+      if (section != null) {
+        section.copyLegacyBlockIds(destination, sectionY * 4096);
+      } else {
+        Arrays.fill(destination, sectionY * 4096, (sectionY + 1) * 4096, (byte) 0);
+      }
+    }
+  }
+
+  @Override
+  public void copyLegacyBlockStates(@NotNull byte[] destination) {
+    checkBulkDestination(destination);
+    for (int sectionY = 0; sectionY < 16; sectionY++) {
+      SlimeChunkSection section = getSection(sectionY);
+      if (section != null) {
+        section.copyLegacyBlockStates(destination, sectionY * 4096);
+      } else {
+        Arrays.fill(destination, sectionY * 4096, (sectionY + 1) * 4096, (byte) 0);
+      }
+    }
+  }
+
+  @Override
+  public void forEachNonAir(@NotNull BlockVisitor visitor) {
+    for (int sectionY = 0; sectionY < 16; sectionY++) {
+      SlimeChunkSection section = getSection(sectionY);
+      if (section instanceof ChunkSectionData) {
+        ((ChunkSectionData) section).forEachNonAir(visitor, sectionY * 16);
+      } else if (section != null) {
+        int offsetY = sectionY * 16;
+        section.forEachNonAir((x, y, z, block) -> visitor.visit(x, y + offsetY, z, block));
+      }
+    }
+  }
+
+  /**
+   * @return Whether or not any of the chunk's sections have been copied from the template
+   */
+  private boolean isModified() {
+    for (int sectionY = 0; sectionY < copiedSections.length(); sectionY++) {
+      if (copiedSections.get(sectionY) != null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Get a section that belongs to this chunk and can be modified, copying it from the template first if it has not been yet
+   *
+   * @param sectionY Index of the section in this column (0 being the bottom section and 15 being the top)
+   */
+  synchronized ChunkSectionData getWritableSection(int sectionY) {
+    ChunkSectionData copied = copiedSections.get(sectionY);
+    if (copied != null) {
+      return copied;
+    }
+
+    SlimeChunkSection original = template != null ? template.getSection(sectionY) : null;
+    copied = original != null
+        ? ChunkSectionData.copyOf(original, this)
+        : new ChunkSectionData(this, new ChunkSectionCoordinates(coordinates, sectionY));
+    copiedSections.set(sectionY, copied);
+    return copied;
+  }
+
+  /**
+   * Throw an {@link IndexOutOfBoundsException} if the provided array is too short to hold every block in this chunk
+   */
+  private void checkBulkDestination(byte[] destination) {
+    if (destination.length < 16 * 4096) {
+      throw new IndexOutOfBoundsException("Destination must be at least 65536 bytes long (was " + destination.length + ")");
+    }
+  }
+
+  /**
+   * Throw an {@link IndexOutOfBoundsException} if the provided coordinates are outside the bounds of this chunk
+   */
+  private void checkCoordinates(int x, int y, int z) {
+    if ((x < 0 || x > 15) || (z < 0 || z > 15) || (y < 0 || y > 255)) {
+      throw new IndexOutOfBoundsException(String.format("Chunk column coordinates out of bounds (%s, %s, %s)", x, y, z));
+    }
+  }
+}
@@ -0,0 +1,259 @@
+package me.nullicorn.slimeball.slime;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.Getter;
+import me.nullicorn.nedit.type.NBTCompound;
+import me.nullicorn.nedit.type.NBTList;
+import me.nullicorn.slimeball.slime.api.BlockCursor;
+import me.nullicorn.slimeball.slime.api.ChunkCoordinates;
+import me.nullicorn.slimeball.slime.api.CoordinateKeys;
+import me.nullicorn.slimeball.slime.api.SlimeBlockState;
+import me.nullicorn.slimeball.slime.api.SlimeChunk;
+import me.nullicorn.slimeball.slime.api.SlimeWorld;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A modifiable view of a shared, read-only template world. Any number of views can be created from the same template without decoding it again;
+ * a view only copies a chunk section from the template the first time that section is modified, so unmodified views take up almost no memory
+ * <p>
+ * The template must not be modified while it has views. Chunks that have not been modified are returned straight from the template, and NBT (tile
+ * entities, entities and extra data) is always shared with it
+ *
+ * @author Nullicorn
+ */
+public class CopyOnWriteSlimeWorld implements SlimeWorld {
+
+  /**
+   * The world that this view reads from
+   */
+  @Getter
+  @NotNull
+  private final SlimeWorld template;
+
+  /**
+   * Chunks that have been modified in this view, mapped to their packed coordinates. Lookups never lock, so they are not slowed down by chunks
+   * being modified on other threads
+   */
+  private final Map<Long, CopyOnWriteChunk> modifiedChunks = new ConcurrentHashMap<>();
+
+  /**
+   * @param template See {@link #template}
+   */
+  public CopyOnWriteSlimeWorld(@NotNull SlimeWorld template) {
+    this.template = template;
+  }
+
+  @Override
+  public short getLowestChunkX() {
+    return template.getLowestChunkX();
+  }
+
+  @Override
+  public short getLowestChunkZ() {
+    return template.getLowestChunkZ();
+  }
+
+  @Override
+  public int getWidth() {
+    return template.getWidth();
+  }
+
+  @Override
+  public int getDepth() {
+    return template.getDepth();
+  }
+
+  @Override
+  public @NotNull NBTList getTileEntities() {
+    return template.getTileEntities();
+  }
+
+  @Override
+  public boolean hasEntities() {
+    return template.hasEntities();
+  }
+
+  @Override
+  public @NotNull NBTList getEntities() {
+    return template.getEntities();
+  }
+
+  @Override
+  public @NotNull NBTCompound getExtraData() {
+    return template.getExtraData();
+  }
+
+  @Override
+  public int getHighestBlockYAt(int x, int z) {
+    SlimeChunk chunk = getChunkAtBlock(x, z);
+    return chunk != null
+        ? chunk.getHighestBlockYAt(x & 0x0F, z & 0x0F)
+        : -1;
+  }
+
+  @Override
+  public boolean isChunkEmpty(int x, int z) {
+    return isChunkEmpty(CoordinateKeys.chunkKey(x, z));
+  }
+
+  @Override
+  public boolean isChunkEmpty(long chunkKey) {
+    CopyOnWriteChunk modified = getModifiedChunk(chunkKey);
+    return modified != null
+        ? modified.isEmpty()
+        : template.isChunkEmpty(chunkKey);
+  }
+
+  /**
+   * @return A list of all chunks stored in this world, including chunks that were only created by modifying this view
+   */
+  @Override
+  public @NotNull List<SlimeChunk> getAllChunks() {
+    List<SlimeChunk> templateChunks = template.getAllChunks();
+    // Chunks modified while this runs are either included as modified or not at all, never both ways
+    Map<Long, CopyOnWriteChunk> modified = new HashMap<>(modifiedChunks);
+    List<SlimeChunk> allChunks = new ArrayList<>();
+    for (SlimeChunk chunk : templateChunks) {
+      if (chunk != null && !modified.containsKey(chunk.getCoordinates().toChunkKey())) {
+        allChunks.add(chunk);
+      }
+    }
+    allChunks.addAll(modified.values());
+    return allChunks;
+  }
+
+  @Override
+  public @Nullable SlimeChunk getChunk(int x, int z) {
+    return getChunk(CoordinateKeys.chunkKey(x, z));
+  }
+
+  @Override
+  public @Nullable SlimeChunk getChunk(long chunkKey) {
+    SlimeChunk modified = getModifiedChunk(chunkKey);
+    return modified != null
+        ? modified
+        : template.getChunk(chunkKey);
+  }
+
+  @Override
+  public @Nullable SlimeChunk getChunkAtBlock(int x, int z) {
+    return getChunk(x >> 4, z >> 4);
+  }
+
+  @Override
+  public @NotNull BlockCursor newCursor() {
+    return new BlockCursor(this);
+  }
+
+  @Override
+  public @NotNull SlimeBlockState getBlockAt(int x, int y, int z) {
+    SlimeChunk chunk = getChunkAtBlock(x, z);
+    return chunk != null
+        ? chunk.getBlockAt(x & 0x0F, y, z & 0x0F)
+        : BlockData.AIR;
+  }
+
+  @Override
+  public byte getBlockLightAt(int x, int y, int z) {
+    SlimeChunk chunk = getChunkAtBlock(x, z);
+    return chunk != null
+        ? chunk.getBlockLightAt(x & 0x0F, y, z & 0x0F)
+        : 0;
+  }
+
+  @Override
+  public byte getSkyLightAt(int x, int y, int z) {
+    SlimeChunk chunk = getChunkAtBlock(x, z);
+    return chunk != null
+        ? chunk.getSkyLightAt(x & 0x0F, y, z & 0x0F)
+        : 0;
+  }
+
+  /**
+   * Change the block at the provided coordinates in this view. The template is not affected
+   *
+   * @throws IndexOutOfBoundsException If the coordinates are outside of the world's bounds
+   */
+  public void setBlockAt(int x, int y, int z, @NotNull SlimeBlockState block) {
+    getWritableSection(x, y, z).setBlockAt(x & 0x0F, y & 0x0F, z & 0x0F, block);
+  }
+
+  /**
+   * Change the block light level (0 to 15) at the provided coordinates in this view. The template is not affected
+   *
+   * @throws IndexOutOfBoundsException If the coordinates are outside of the world's bounds
+   */
+  public void setBlockLightAt(int x, int y, int z, byte level) {
+    getWritableSection(x, y, z).setBlockLightAt(x & 0x0F, y & 0x0F, z & 0x0F, level);
+  }
+
+  /**
+   * Change the sky light level (0 to 15) at the provided coordinates in this view. The template is not affected
+   *
+   * @throws IndexOutOfBoundsException If the coordinates are outside of the world's bounds
+   */
+  public void setSkyLightAt(int x, int y, int z, byte level) {
+    getWritableSection(x, y, z).setSkyLightAt(x & 0x0F, y & 0x0F, z & 0x0F, level);
+  }
+
+  /**
+   * @return The number of chunks that have been modified in this view
+   */
+  public int getModifiedChunkCount() {
+    return modifiedChunks.size();
+  }
+
+  /**
+   * Get the section containing the provided block that belongs to this view, copying it from the template first if needed
+   *
+   * @throws IndexOutOfBoundsException If the coordinates are outside of the world's bounds
+   */
+  private ChunkSectionData getWritableSection(int x, int y, int z) {
+    int chunkX = x >> 4;
+    int chunkZ = z >> 4;
+    if ((chunkX < getLowestChunkX() || chunkX >= getLowestChunkX() + getWidth())
+        || (chunkZ < getLowestChunkZ() || chunkZ >= getLowestChunkZ() + getDepth())
+        || (y < 0 || y > 255)) {
+      throw new IndexOutOfBoundsException(String.format("Block coordinates out of world bounds (%s, %s, %s)", x, y, z));
+    }
+
+    long chunkKey = CoordinateKeys.chunkKey(chunkX, chunkZ);
+    CopyOnWriteChunk chunk = getModifiedChunk(chunkKey);
+    if (chunk == null) {
+      chunk = addModifiedChunk(chunkKey);
+    }
+    return chunk.getWritableSection(y >> 4);
+  }
+
+  /**
+   * @return The chunk with the provided key if it has been modified in this view, or null if it has not
+   */
+  @Nullable
+  private CopyOnWriteChunk getModifiedChunk(long chunkKey) {
+    return modifiedChunks.get(chunkKey);
+  }
+
+  /**
+   * Start tracking a chunk as modified, unless another thread already has
+   *
+   * @return The modified chunk with the provided key
+   */
+  private CopyOnWriteChunk addModifiedChunk(long chunkKey) {
+    // The template may have to decode its chunk first, which shouldn't happen while the map is locked
+    SlimeChunk templateChunk = template.getChunk(chunkKey);
+    return modifiedChunks.computeIfAbsent(chunkKey, key -> new CopyOnWriteChunk(this, ChunkCoordinates.fromKey(key), templateChunk));
+  }
+
+  @Override
+  public String toString() {
+    return "CopyOnWriteSlimeWorld{" +
+        "template=" + template +
+        ", modifiedChunks=" + getModifiedChunkCount() +
+        '}';
+  }
+}
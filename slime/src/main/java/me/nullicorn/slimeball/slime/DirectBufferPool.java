@@ -0,0 +1,68 @@
+package me.nullicorn.slimeball.slime;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+/**
+ * A thread-safe pool of direct {@link ByteBuffer buffers}, used to decompress slime data without allocating new native memory for every file
+ *
+ * @author Nullicorn
+ */
+public class DirectBufferPool {
+
+  /**
+   * The maximum number of idle buffers kept by the pool. Buffers released once the pool is full are left for the garbage collector
+   */
+  private final int maxPooledBuffers;
+
+  private final Deque<ByteBuffer> buffers = new ArrayDeque<>();
+
+  public DirectBufferPool() {
+    this(8);
+  }
+
+  /**
+   * @param maxPooledBuffers See {@link #maxPooledBuffers}
+   */
+  public DirectBufferPool(int maxPooledBuffers) {
+    if (maxPooledBuffers < 0) {
+      throw new IllegalArgumentException("Pool size cannot be negative");
+    }
+    this.maxPooledBuffers = maxPooledBuffers;
+  }
+
+  /**
+   * Get a direct buffer that can hold at least the provided number of bytes. The buffer's position will be 0 and its limit will be the requested
+   * capacity
+   *
+   * @param capacity Minimum number of bytes that the buffer must be able to hold
+   * @return A pooled buffer if one was large enough, otherwise a newly allocated one
+   */
+  public synchronized ByteBuffer acquire(int capacity) {
+    Iterator<ByteBuffer> pooled = buffers.iterator();
+    while (pooled.hasNext()) {
+      ByteBuffer buffer = pooled.next();
+      if (buffer.capacity() >= capacity) {
+        pooled.remove();
+        buffer.clear();
+        buffer.limit(capacity);
+        return buffer;
+      }
+    }
+    return ByteBuffer.allocateDirect(capacity);
+  }
+
+  /**
+   * Return a buffer to the pool so that it can be reused. The buffer must not be used by the caller after being released
+   *
+   * @param buffer Buffer to return to the pool. Heap buffers are ignored
+   */
+  public synchronized void release(ByteBuffer buffer) {
+    if (buffer == null || !buffer.isDirect() || buffers.size() >= maxPooledBuffers) {
+      return;
+    }
+    buffers.push(buffer);
+  }
+}
@@ -0,0 +1,195 @@
+package me.nullicorn.slimeball.slime;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import me.nullicorn.nedit.type.NBTCompound;
+import me.nullicorn.nedit.type.NBTList;
+import me.nullicorn.slimeball.slime.api.NibbleArray;
+import me.nullicorn.slimeball.slime.api.SlimeChunk;
+import me.nullicorn.slimeball.slime.api.SlimeChunkSection;
+import me.nullicorn.slimeball.slime.api.SlimeWorld;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Rough estimates of how much heap memory slime data keeps reachable. Estimates assume a 64-bit JVM with compressed references, and are meant for
+ * budgeting (e.g. sizing caches), not exact accounting
+ *
+ * @author Nullicorn
+ */
+public final class HeapEstimates {
+
+  private static final int OBJECT_HEADER = 12;
+  private static final int ARRAY_HEADER  = 16;
+  private static final int REFERENCE     = 4;
+
+  /**
+   * Estimate the heap retained by a world: its chunks (decoded or still compressed), and its NBT. Chunks that a {@link ChunkLoadMode#LAZY lazy}
+   * world has not decoded yet are counted as their raw data, so the estimate grows as more chunks are decoded
+   * <p>
+   * Raw data held in a direct buffer (as {@link MappedSlimeReader} leaves it) is not counted, since it is off-heap; see {@link
+   * #ofDirectBuffers(SlimeWorld)} for that instead. Walking a world's NBT is not cheap, so callers that track a world over time should estimate the
+   * rest of it once, and only add {@link #ofLazilyDecodedChunks(SlimeWorld)} to that afterwards
+   *
+   * @return The estimated number of bytes retained by the world
+   */
+  public static long ofWorld(@NotNull SlimeWorld world) {
+    long size = OBJECT_HEADER;
+
+    if (world instanceof BinarySlimeWorld) {
+      BinarySlimeWorld binaryWorld = (BinarySlimeWorld) world;
+      ByteBuffer rawChunkData = binaryWorld.rawChunkData;
+      if (rawChunkData != null && !rawChunkData.isDirect()) {
+        size += rawChunkData.capacity();
+      }
+      int[] chunkOffsets = binaryWorld.chunkOffsets;
+      if (chunkOffsets != null) {
+        size += ofArray(chunkOffsets.length, 4);
+      }
+      AtomicReferenceArray<ChunkData> chunkArray = binaryWorld.chunkArray;
+      if (chunkArray != null && binaryWorld.chunkLoadMode == ChunkLoadMode.LAZY) {
+        // Lazily decoded chunks are already counted as they are decoded
+        size += align(OBJECT_HEADER + REFERENCE) + ofArray(chunkArray.length(), REFERENCE) + binaryWorld.lazyChunkHeapSize.get();
+      } else if (chunkArray != null) {
+        size += align(OBJECT_HEADER + REFERENCE) + ofArray(chunkArray.length(), REFERENCE);
+        for (int i = 0; i < chunkArray.length(); i++) {
+          ChunkData chunk = chunkArray.get(i);
+          if (chunk != null) {
+            size += ofChunk(chunk);
+          }
+        }
+      }
+    } else {
+      for (SlimeChunk chunk : world.getAllChunks()) {
+        if (chunk != null) {
+          size += ofChunk(chunk);
+        }
+      }
+    }
+
+    size += ofNBT(world.getTileEntities());
+    size += ofNBT(world.getEntities());
+    size += ofNBT(world.getExtraData());
+    return size;
+  }
+
+  /**
+   * Estimate the heap retained by the chunks that a {@link ChunkLoadMode#LAZY lazy} world has decoded so far. This is kept up to date by the world
+   * as it decodes chunks, so it is cheap to call
+   *
+   * @return The estimated number of bytes retained by the world's lazily decoded chunks, or 0 if the world does not decode chunks lazily
+   */
+  public static long ofLazilyDecodedChunks(@NotNull SlimeWorld world) {
+    return world instanceof BinarySlimeWorld
+        ? ((BinarySlimeWorld) world).lazyChunkHeapSize.get()
+        : 0;
+  }
+
+  /**
+   * Get the off-heap memory retained by a world. This is the raw chunk data of a {@link ChunkLoadMode#LAZY lazy} world read by {@link
+   * MappedSlimeReader}, which is kept until every chunk has been decoded. It is limited by the JVM's direct memory limit, not the heap. This is cheap
+   * to call, and drops to 0 once the raw data is released
+   *
+   * @return The number of bytes the world holds in direct buffers
+   */
+  public static long ofDirectBuffers(@NotNull SlimeWorld world) {
+    if (world instanceof BinarySlimeWorld) {
+      ByteBuffer rawChunkData = ((BinarySlimeWorld) world).rawChunkData;
+      if (rawChunkData != null && rawChunkData.isDirect()) {
+        return rawChunkData.capacity();
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * @return The estimated number of bytes retained by a chunk column and its sections
+   */
+  static long ofChunk(@NotNull SlimeChunk chunk) {
+    long size = align(OBJECT_HEADER + 7 * REFERENCE) // Chunk & its fields
+        + align(OBJECT_HEADER + 8) // Coordinates
+        + ofArray(256, 4) // Heightmap
+        + ofArray(256, 4) // Surface (once it has been found)
+        + ofArray(256, 1) // Biomes
+        + align(OBJECT_HEADER + REFERENCE + 8) + ofArray(1, 8) // Section bitmask
+        + ofArray(16, REFERENCE); // Sections
+
+    for (int sectionY = 0; sectionY < 16; sectionY++) {
+      SlimeChunkSection section = chunk.getSection(sectionY);
+      if (section != null) {
+        size += ofSection(section);
+      }
+    }
+    return size;
+  }
+
+  /**
+   * @return The estimated number of bytes retained by a chunk section
+   */
+  static long ofSection(@NotNull SlimeChunkSection section) {
+    long size = align(OBJECT_HEADER + 6 * REFERENCE + 1) // Section & its fields
+        + align(OBJECT_HEADER + 12); // Coordinates
+
+    if (section instanceof ChunkSectionData) {
+      ChunkSectionData data = (ChunkSectionData) section;
+      size += data.blockIds != null ? ofArray(data.blockIds.length, 1) : 0;
+      size += ofNibbleArray(data.blockStates);
+      size += ofNibbleArray(data.blockLight);
+      size += ofNibbleArray(data.skyLight);
+      return size;
+    }
+    return size + ofArray(4096, 1) + 3 * (align(OBJECT_HEADER + REFERENCE) + ofArray(2048, 1));
+  }
+
+  /**
+   * @return The estimated number of bytes retained by an NBT value, including any values nested inside it
+   */
+  static long ofNBT(Object value) {
+    if (value instanceof NBTCompound) {
+      long[] size = {align(OBJECT_HEADER + 32) + ofArray(((NBTCompound) value).size() * 2, REFERENCE)};
+      ((NBTCompound) value).forEach((name, entry) -> size[0] += align(OBJECT_HEADER + 16) + ofNBT(name) + ofNBT(entry));
+      return size[0];
+    } else if (value instanceof NBTList) {
+      long[] size = {align(OBJECT_HEADER + 16) + ofArray(((NBTList) value).size(), REFERENCE)};
+      ((NBTList) value).forEach(entry -> size[0] += ofNBT(entry));
+      return size[0];
+    } else if (value instanceof String) {
+      return align(OBJECT_HEADER + 8) + ofArray(((String) value).length(), 2);
+    } else if (value instanceof byte[]) {
+      return ofArray(((byte[]) value).length, 1);
+    } else if (value instanceof int[]) {
+      return ofArray(((int[]) value).length, 4);
+    } else if (value instanceof long[]) {
+      return ofArray(((long[]) value).length, 8);
+    } else if (value instanceof Object[]) {
+      Object[] array = (Object[]) value;
+      long size = ofArray(array.length, REFERENCE);
+      for (Object entry : array) {
+        size += ofNBT(entry);
+      }
+      return size;
+    }
+    // Boxed numbers
+    return value != null ? align(OBJECT_HEADER + 8) : 0;
+  }
+
+  private static long ofNibbleArray(NibbleArray nibbles) {
+    // Uniform arrays are shared, so they don't count towards any one section
+    return nibbles != null && !nibbles.isUniform()
+        ? align(OBJECT_HEADER + REFERENCE + 1) + ofArray(nibbles.getAllBytes().length, 1)
+        : 0;
+  }
+
+  private static long ofArray(int length, int elementSize) {
+    return align(ARRAY_HEADER + (long) length * elementSize);
+  }
+
+  /**
+   * Round a size up to the nearest multiple of 8, since objects are 8-byte aligned
+   */
+  private static long align(long size) {
+    return (size + 7) & ~7L;
+  }
+
+  private HeapEstimates() {
+  }
+}
@@ -0,0 +1,76 @@
+package me.nullicorn.slimeball.slime;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An input stream that reads at most a fixed number of bytes from another stream. Closing it does not close the underlying stream
+ *
+ * @author Nullicorn
+ */
+class LimitedInputStream extends FilterInputStream {
+
+  /**
+   * The number of bytes that can still be read before the limit is reached
+   */
+  private long remaining;
+
+  LimitedInputStream(InputStream in, long limit) {
+    super(in);
+    this.remaining = limit;
+  }
+
+  /**
+   * @return The number of bytes that can still be read before the limit is reached
+   */
+  long getRemaining() {
+    return remaining;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (remaining <= 0) {
+      return -1;
+    }
+    int result = in.read();
+    if (result != -1) {
+      remaining--;
+    }
+    return result;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (remaining <= 0) {
+      return -1;
+    }
+    int bytesRead = in.read(b, off, (int) Math.min(len, remaining));
+    if (bytesRead > 0) {
+      remaining -= bytesRead;
+    }
+    return bytesRead;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    long skipped = in.skip(Math.min(n, remaining));
+    remaining -= skipped;
+    return skipped;
+  }
+
+  @Override
+  public int available() throws IOException {
+    return (int) Math.min(in.available(), remaining);
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  @Override
+  public void close() {
+    // Leave the underlying stream open
+  }
+}
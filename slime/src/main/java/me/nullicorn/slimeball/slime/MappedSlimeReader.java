@@ -0,0 +1,439 @@
+package me.nullicorn.slimeball.slime;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.ZstdException;
+import com.github.luben.zstd.ZstdInputStream;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import lombok.Getter;
+import lombok.Setter;
+import me.nullicorn.nedit.NBTInputStream;
+import me.nullicorn.nedit.type.NBTCompound;
+import me.nullicorn.slimeball.slime.SlimeLoadMetrics.Blob;
+import me.nullicorn.slimeball.slime.api.SlimeWorld;
+import me.nullicorn.slimeball.slime.exception.IllegalFormatException;
+import me.nullicorn.slimeball.slime.exception.UnsupportedVersionException;
+import me.nullicorn.slimeball.slime.jfr.SlimeEvents;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Reads slime files by memory-mapping them, instead of streaming them like {@link SlimeInputStream}. Compressed data is decompressed straight from
+ * the mapped file into direct buffers, and chunks are decoded from those buffers without copying them onto the heap first
+ * <p>
+ * Worlds read by this class never reference the mapped file; {@link ChunkLoadMode#LAZY lazy} worlds keep their own decompressed copy of the chunk
+ * data. Java 8 has no way to unmap a file explicitly, so the mapping is released when it is garbage-collected, which can only happen once the
+ * reader is {@link #close() closed}. Until then the file stays mapped (and on Windows, cannot be deleted or replaced), so readers should be closed
+ * as soon as the world has been read
+ *
+ * @author Nullicorn
+ */
+public class MappedSlimeReader implements Closeable {
+
+  private final FileChannel      channel;
+  private       MappedByteBuffer buffer;
+
+  /**
+   * The time taken to map the file, in nanoseconds
+   */
+  private final long mapTime;
+
+  /**
+   * Where buffers for decompressed data are taken from, or null if a new buffer should be allocated each time
+   */
+  @Nullable
+  private final DirectBufferPool bufferPool;
+
+  /**
+   * The number of threads used to decode chunks when reading in {@link ChunkLoadMode#PARALLEL parallel} mode
+   */
+  @Getter
+  @Setter
+  private int parallelism = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * The dictionaries that compressed data may need to be decompressed with, or null if the data is not expected to use any
+   */
+  @Getter
+  @Setter
+  @Nullable
+  private SlimeDictionaries dictionaries;
+
+  /**
+   * Where the time spent in each phase of reading is recorded, or null if it should not be recorded
+   */
+  @Getter
+  @Setter
+  @Nullable
+  private SlimeLoadMetrics metrics;
+
+  /**
+   * @param file File to read slime data from
+   * @throws IOException If the file could not be opened or mapped
+   */
+  public MappedSlimeReader(@NotNull File file) throws IOException {
+    this(file, null);
+  }
+
+  /**
+   * @param file       File to read slime data from
+   * @param bufferPool Pool to take decompression buffers from, or null to allocate new ones
+   * @throws IOException If the file could not be opened or mapped
+   */
+  public MappedSlimeReader(@NotNull File file, @Nullable DirectBufferPool bufferPool) throws IOException {
+    long startTime = System.nanoTime();
+    this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    this.bufferPool = bufferPool;
+
+    try {
+      long fileSize = channel.size();
+      if (fileSize > Integer.MAX_VALUE) {
+        throw new IllegalFormatException("Slime file is too large to map (" + fileSize + " bytes)");
+      }
+      this.buffer = channel.map(MapMode.READ_ONLY, 0, fileSize);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+    this.mapTime = System.nanoTime() - startTime;
+  }
+
+  /**
+   * Read the entire slime file, decoding all of its chunks immediately
+   *
+   * @return The deserialized slime file
+   * @throws IOException If the data could not be read or was in an invalid format
+   */
+  public SlimeWorld readFully() throws IOException {
+    return readFully(ChunkLoadMode.EAGER);
+  }
+
+  /**
+   * Read the entire slime file
+   *
+   * @param chunkLoadMode When the chunks in the file should be decoded
+   * @return The deserialized slime file
+   * @throws IOException If the data could not be read or was in an invalid format
+   */
+  public SlimeWorld readFully(@NotNull ChunkLoadMode chunkLoadMode) throws IOException {
+    ensureOpen();
+    Object readEvent = SlimeEvents.beginRead();
+    long allocatedBefore = -1;
+    if (metrics != null) {
+      // Pages of the file are only read once they are used, so that is counted as part of decompression
+      metrics.recordFileRead(mapTime, buffer.capacity());
+      allocatedBefore = SlimeLoadMetrics.currentThreadAllocatedBytes();
+    }
+
+    // Magic numbers, version, position & size of chunks
+    ChunkBufferReader.require(buffer, 11);
+    int header = buffer.getShort() & 0xFFFF;
+    if (header != BinarySlimeWorld.MAGIC_NUMBERS) {
+      throw new IllegalFormatException("Invalid header for slime data");
+    }
+
+    byte version = buffer.get();
+    if (!SlimeInputStream.isVersionSupported(version)) {
+      throw new UnsupportedVersionException(version);
+    }
+
+    short minChunkX = buffer.getShort();
+    short minChunkZ = buffer.getShort();
+    int width = buffer.getShort() & 0xFFFF;
+    int depth = buffer.getShort() & 0xFFFF;
+
+    // Chunk bitmask & compressed chunk data
+    int bitmaskSize = (int) Math.ceil((width * depth) / 8d);
+    ChunkBufferReader.require(buffer, bitmaskSize);
+    byte[] bitmaskBytes = new byte[bitmaskSize];
+    buffer.get(bitmaskBytes);
+    BitSet chunkBitmask = BitSet.valueOf(bitmaskBytes);
+    BinarySlimeWorld world = BinarySlimeWorld.builder()
+        .version(version)
+        .minChunkX(minChunkX)
+        .minChunkZ(minChunkZ)
+        .width(width)
+        .depth(depth)
+        .chunkBitmask(chunkBitmask)
+        .chunkLoadMode(chunkLoadMode)
+        .parallelism(parallelism)
+        .loadMetrics(metrics)
+        .build();
+    ByteBuffer chunkData = null;
+    if (chunkLoadMode == ChunkLoadMode.STREAMING) {
+      readCompressedChunks(world);
+    } else {
+      chunkData = readCompressed(Blob.CHUNKS);
+      world.setRawChunkData(chunkData);
+    }
+
+    // Compressed tile entities
+    world.setTileEntityData(readCompressedCompound(Blob.TILE_ENTITIES));
+
+    // Compressed entities (version 3+ only)
+    if (version >= 3) {
+      ChunkBufferReader.require(buffer, 1);
+      boolean hasEntities = buffer.get() != 0;
+      world.setHasEntities(hasEntities);
+      if (hasEntities) {
+        world.setEntityData(readCompressedCompound(Blob.ENTITIES));
+      }
+    }
+
+    // Compressed "extra" NBT (version 2+ only)
+    if (version >= 2) {
+      world.setExtraData(readCompressedCompound(Blob.EXTRA));
+    }
+
+    world.loadChunkData();
+    if (metrics != null && allocatedBefore >= 0) {
+      metrics.recordAllocatedBytes(SlimeLoadMetrics.currentThreadAllocatedBytes() - allocatedBefore);
+    }
+
+    // Lazy worlds keep decoding from the buffer, so it can only be reused if every chunk has already been decoded
+    if (chunkData != null && chunkLoadMode != ChunkLoadMode.LAZY) {
+      releaseBuffer(chunkData);
+    }
+    SlimeEvents.endRead(readEvent, version, width, depth, chunkBitmask.cardinality(), chunkLoadMode.name());
+    return world;
+  }
+
+  /**
+   * Read the file's metadata and the sizes of its compressed blobs, without decompressing anything. Only the pages of the file containing the
+   * metadata and the blob sizes are touched
+   *
+   * @return The file's header
+   * @throws IOException If the data was in an invalid format, or the file ended before the last blob did
+   */
+  public SlimeHeader readHeader() throws IOException {
+    ensureOpen();
+    ChunkBufferReader.require(buffer, 11);
+    int header = buffer.getShort() & 0xFFFF;
+    if (header != BinarySlimeWorld.MAGIC_NUMBERS) {
+      throw new IllegalFormatException("Invalid header for slime data");
+    }
+
+    byte version = buffer.get();
+    if (!SlimeInputStream.isVersionSupported(version)) {
+      throw new UnsupportedVersionException(version);
+    }
+
+    short minChunkX = buffer.getShort();
+    short minChunkZ = buffer.getShort();
+    int width = buffer.getShort() & 0xFFFF;
+    int depth = buffer.getShort() & 0xFFFF;
+
+    int bitmaskSize = (int) Math.ceil((width * depth) / 8d);
+    ChunkBufferReader.require(buffer, bitmaskSize);
+    byte[] bitmaskBytes = new byte[bitmaskSize];
+    buffer.get(bitmaskBytes);
+    BitSet chunkBitmask = BitSet.valueOf(bitmaskBytes);
+
+    long[] compressedSizes = SlimeHeader.newSizeArray();
+    long[] uncompressedSizes = SlimeHeader.newSizeArray();
+    skipCompressed(Blob.CHUNKS, compressedSizes, uncompressedSizes);
+    skipCompressed(Blob.TILE_ENTITIES, compressedSizes, uncompressedSizes);
+
+    boolean hasEntities = false;
+    if (version >= 3) {
+      ChunkBufferReader.require(buffer, 1);
+      hasEntities = buffer.get() != 0;
+      if (hasEntities) {
+        skipCompressed(Blob.ENTITIES, compressedSizes, uncompressedSizes);
+      }
+    }
+
+    if (version >= 2) {
+      skipCompressed(Blob.EXTRA, compressedSizes, uncompressedSizes);
+    }
+
+    return new SlimeHeader(version, minChunkX, minChunkZ, width, depth, chunkBitmask, hasEntities, buffer.position(), compressedSizes,
+        uncompressedSizes);
+  }
+
+  /**
+   * Move past a compressed blob in the file, recording its sizes
+   */
+  private void skipCompressed(Blob blob, long[] compressedSizes, long[] uncompressedSizes) throws IOException {
+    ChunkBufferReader.require(buffer, 8);
+    int compressedSize = buffer.getInt();
+    int uncompressedSize = buffer.getInt();
+    if (compressedSize < 0 || uncompressedSize < 0) {
+      throw new IllegalFormatException("Compressed data cannot have a negative length");
+    }
+    ChunkBufferReader.skip(buffer, compressedSize);
+
+    compressedSizes[blob.ordinal()] = compressedSize;
+    uncompressedSizes[blob.ordinal()] = uncompressedSize;
+  }
+
+  /**
+   * Decompress the world's chunk data from the file, decoding each chunk as soon as it is decompressed. The decompressed data is never held in
+   * memory all at once
+   *
+   * @param world The world to decode chunks into
+   * @throws IOException If the data could not be read or decompressed
+   */
+  private void readCompressedChunks(BinarySlimeWorld world) throws IOException {
+    ChunkBufferReader.require(buffer, 8);
+    int compressedSize = buffer.getInt();
+    int uncompressedSize = buffer.getInt();
+
+    ChunkBufferReader.require(buffer, compressedSize);
+    ByteBuffer compressed = buffer.slice();
+    compressed.limit(compressedSize);
+    buffer.position(buffer.position() + compressedSize);
+
+    ZstdDictDecompress dictionary = SlimeDictionaries.getDecompressor(dictionaries, getDictionaryId(compressed));
+    ZstdInputStream decompressed = new ZstdInputStream(new ByteBufferInputStream(compressed));
+    if (dictionary != null) {
+      decompressed.setDict(dictionary);
+    }
+    try (SlimeInputStream chunkIn = new SlimeInputStream(new BufferedInputStream(decompressed, SlimeInputStream.STREAMING_BUFFER_SIZE))) {
+      world.loadChunkData(chunkIn);
+    }
+
+    // Decompressing happened while the chunks were decoded, so that time is counted as decoding
+    if (metrics != null) {
+      metrics.recordDecompress(Blob.CHUNKS, 0, compressedSize, uncompressedSize);
+    }
+  }
+
+  /**
+   * Read a zstd-compressed NBT compound from the file
+   *
+   * @return NBT compound read from the file
+   * @throws IOException If the data could not be read
+   */
+  public NBTCompound readCompressedCompound() throws IOException {
+    ensureOpen();
+    return readCompressedCompound(null);
+  }
+
+  /**
+   * Read a compressed block of data from the file. The data should be prefixed with two integers: the first being the compressed length of the
+   * data and the second being the uncompressed length
+   *
+   * @return A direct buffer containing the uncompressed data, from its position to its limit. If this reader has a {@link DirectBufferPool}, the
+   *     buffer came from it and may be released back to it once the caller is done with it
+   * @throws IOException If the data could not be read or decompressed
+   */
+  public ByteBuffer readCompressed() throws IOException {
+    ensureOpen();
+    return readCompressed(null);
+  }
+
+  /**
+   * Same as {@link #readCompressedCompound()}, but records the time spent as the provided part of the file
+   *
+   * @param blob The part of the file being read, or null if it should not be recorded in the {@link #metrics}
+   */
+  private NBTCompound readCompressedCompound(@Nullable Blob blob) throws IOException {
+    ByteBuffer uncompressed = readCompressed(blob);
+    try {
+      long startTime = System.nanoTime();
+      NBTCompound compound = new NBTInputStream(new ByteBufferInputStream(uncompressed)).readFully();
+      if (metrics != null && blob != null) {
+        metrics.recordNbtParse(System.nanoTime() - startTime);
+      }
+      return compound;
+    } finally {
+      releaseBuffer(uncompressed);
+    }
+  }
+
+  /**
+   * Same as {@link #readCompressed()}, but records the time spent as the provided part of the file
+   *
+   * @param blob The part of the file being read, or null if it should not be recorded in the {@link #metrics}
+   */
+  private ByteBuffer readCompressed(@Nullable Blob blob) throws IOException {
+    ChunkBufferReader.require(buffer, 8);
+    int compressedSize = buffer.getInt();
+    int uncompressedSize = buffer.getInt();
+    if (compressedSize < 0 || uncompressedSize < 0) {
+      throw new IllegalFormatException("Compressed data cannot have a negative length");
+    }
+
+    // Slice the compressed bytes out of the mapped file
+    ChunkBufferReader.require(buffer, compressedSize);
+    ByteBuffer compressed = buffer.slice();
+    compressed.limit(compressedSize);
+    buffer.position(buffer.position() + compressedSize);
+
+    Object decompressEvent = SlimeEvents.beginDecompress();
+    long startTime = System.nanoTime();
+    ByteBuffer uncompressed = bufferPool != null
+        ? bufferPool.acquire(uncompressedSize)
+        : ByteBuffer.allocateDirect(uncompressedSize);
+    int decompressedSize;
+    try {
+      ZstdDictDecompress dictionary = SlimeDictionaries.getDecompressor(dictionaries, getDictionaryId(compressed));
+      decompressedSize = dictionary != null
+          ? Zstd.decompress(uncompressed, compressed, dictionary)
+          : Zstd.decompress(uncompressed, compressed);
+    } catch (IllegalFormatException e) {
+      releaseBuffer(uncompressed);
+      throw e;
+    } catch (ZstdException e) {
+      releaseBuffer(uncompressed);
+      throw new IllegalFormatException("Unable to decompress slime data", e);
+    }
+    if (decompressedSize != uncompressedSize) {
+      releaseBuffer(uncompressed);
+      throw new IllegalFormatException("Expected " + uncompressedSize + " uncompressed bytes but got " + decompressedSize);
+    }
+
+    if (metrics != null && blob != null) {
+      metrics.recordDecompress(blob, System.nanoTime() - startTime, compressedSize, uncompressedSize);
+    }
+    SlimeEvents.endDecompress(decompressEvent, blob != null ? blob.name() : null, compressedSize, uncompressedSize);
+
+    uncompressed.flip();
+    return uncompressed;
+  }
+
+  /**
+   * @return The ID of the dictionary that a zstd frame was compressed with, or 0 if it was compressed without one. The frame's position is unchanged
+   */
+  private static long getDictionaryId(ByteBuffer frame) {
+    byte[] header = new byte[Math.min(frame.remaining(), SlimeInputStream.MAX_FRAME_HEADER_SIZE)];
+    frame.duplicate().get(header);
+    return Zstd.getDictIdFromFrame(header);
+  }
+
+  private void releaseBuffer(ByteBuffer buffer) {
+    if (bufferPool != null) {
+      bufferPool.release(buffer);
+    }
+  }
+
+  /**
+   * @throws ClosedChannelException If the reader has been closed
+   */
+  private void ensureOpen() throws ClosedChannelException {
+    if (buffer == null) {
+      throw new ClosedChannelException();
+    }
+  }
+
+  /**
+   * Close the file and drop this reader's reference to the mapping, so that it can be unmapped once it is garbage-collected. Buffers returned by
+   * {@link #readCompressed()} are separate from the mapping, and remain valid
+   */
+  @Override
+  public void close() throws IOException {
+    buffer = null;
+    channel.close();
+  }
+}
@@ -0,0 +1,274 @@
+package me.nullicorn.slimeball.slime;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import me.nullicorn.nedit.type.NBTCompound;
+import me.nullicorn.nedit.type.NBTList;
+
+/**
+ * Writes Nedit NBT tags in Minecraft's binary NBT format (uncompressed)
+ *
+ * @author Nullicorn
+ */
+final class NBTSerializer {
+
+  private static final int TAG_END        = 0;
+  private static final int TAG_BYTE       = 1;
+  private static final int TAG_SHORT      = 2;
+  private static final int TAG_INT        = 3;
+  private static final int TAG_LONG       = 4;
+  private static final int TAG_FLOAT      = 5;
+  private static final int TAG_DOUBLE     = 6;
+  private static final int TAG_BYTE_ARRAY = 7;
+  private static final int TAG_STRING     = 8;
+  private static final int TAG_LIST       = 9;
+  private static final int TAG_COMPOUND   = 10;
+  private static final int TAG_INT_ARRAY  = 11;
+  private static final int TAG_LONG_ARRAY = 12;
+
+  /**
+   * Write a compound as the root of an NBT structure. This is the inverse of {@link me.nullicorn.nedit.NBTInputStream#readFully()}: each entry in
+   * the compound is written as a named root tag (normally there is exactly one, named "")
+   *
+   * @throws IOException If the data could not be written
+   */
+  static void writeRoot(DataOutput out, NBTCompound root) throws IOException {
+    Map<String, Object> entries = entriesOf(root);
+    if (entries.isEmpty()) {
+      // Empty, unnamed root compound
+      out.writeByte(TAG_COMPOUND);
+      out.writeUTF("");
+      out.writeByte(TAG_END);
+      return;
+    }
+    for (Entry<String, Object> entry : entries.entrySet()) {
+      writeNamedTag(out, entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * Write an unnamed root compound that contains a single list
+   *
+   * @param listName The name of the list inside the root compound
+   * @throws IOException If the data could not be written
+   */
+  static void writeRootList(DataOutput out, String listName, NBTList list) throws IOException {
+    out.writeByte(TAG_COMPOUND);
+    out.writeUTF("");
+    writeNamedTag(out, listName, list);
+    out.writeByte(TAG_END);
+  }
+
+  /**
+   * Write the start of an unnamed root compound that contains a single list of compounds. The caller writes each compound with {@link
+   * #writeCompoundPayload(DataOutput, NBTCompound)}, then ends the root with {@link #writeRootListEnd(DataOutput)}
+   *
+   * @param listName The name of the list inside the root compound
+   * @param size     The number of compounds that will be written to the list
+   * @throws IOException If the data could not be written
+   */
+  static void writeRootListStart(DataOutput out, String listName, int size) throws IOException {
+    writeCompoundStart(out, "");
+    writeCompoundListStart(out, listName, size);
+  }
+
+  /**
+   * End a root compound started by {@link #writeRootListStart(DataOutput, String, int)}
+   *
+   * @throws IOException If the data could not be written
+   */
+  static void writeRootListEnd(DataOutput out) throws IOException {
+    writeCompoundEnd(out);
+  }
+
+  /**
+   * Write the start of a named compound. The caller writes each of its entries with {@link #writeNamedTag(DataOutput, String, Object)}, then ends
+   * the compound with {@link #writeCompoundEnd(DataOutput)}
+   *
+   * @throws IOException If the data could not be written
+   */
+  static void writeCompoundStart(DataOutput out, String name) throws IOException {
+    out.writeByte(TAG_COMPOUND);
+    out.writeUTF(name);
+  }
+
+  /**
+   * End a compound started by {@link #writeCompoundStart(DataOutput, String)}
+   *
+   * @throws IOException If the data could not be written
+   */
+  static void writeCompoundEnd(DataOutput out) throws IOException {
+    out.writeByte(TAG_END);
+  }
+
+  /**
+   * Write the start of a named list of compounds. The caller writes each compound with {@link #writeCompoundPayload(DataOutput, NBTCompound)}, or
+   * writes its entries and ends it with {@link #writeCompoundEnd(DataOutput)}
+   *
+   * @param size The number of compounds that will be written to the list
+   * @throws IOException If the data could not be written
+   */
+  static void writeCompoundListStart(DataOutput out, String name, int size) throws IOException {
+    out.writeByte(TAG_LIST);
+    out.writeUTF(name);
+    out.writeByte(size > 0 ? TAG_COMPOUND : TAG_END);
+    out.writeInt(size);
+  }
+
+  /**
+   * Write a compound's entries, without a type or name before them
+   *
+   * @throws IOException If the data could not be written
+   */
+  static void writeCompoundPayload(DataOutput out, NBTCompound compound) throws IOException {
+    writePayload(out, compound);
+  }
+
+  /**
+   * Write a single tag, with its type and name before it
+   *
+   * @throws IOException If the data could not be written
+   */
+  static void writeNamedTag(DataOutput out, String name, Object value) throws IOException {
+    out.writeByte(typeOf(value));
+    out.writeUTF(name);
+    writePayload(out, value);
+  }
+
+  private static void writePayload(DataOutput out, Object value) throws IOException {
+    switch (typeOf(value)) {
+      case TAG_BYTE:
+        out.writeByte((Byte) value);
+        break;
+      case TAG_SHORT:
+        out.writeShort((Short) value);
+        break;
+      case TAG_INT:
+        out.writeInt((Integer) value);
+        break;
+      case TAG_LONG:
+        out.writeLong((Long) value);
+        break;
+      case TAG_FLOAT:
+        out.writeFloat((Float) value);
+        break;
+      case TAG_DOUBLE:
+        out.writeDouble((Double) value);
+        break;
+      case TAG_STRING:
+        out.writeUTF((String) value);
+        break;
+
+      case TAG_BYTE_ARRAY:
+        if (value instanceof byte[]) {
+          byte[] bytes = (byte[]) value;
+          out.writeInt(bytes.length);
+          out.write(bytes);
+        } else {
+          Byte[] bytes = (Byte[]) value;
+          out.writeInt(bytes.length);
+          for (Byte b : bytes) {
+            out.writeByte(b);
+          }
+        }
+        break;
+
+      case TAG_INT_ARRAY:
+        if (value instanceof int[]) {
+          int[] ints = (int[]) value;
+          out.writeInt(ints.length);
+          for (int i : ints) {
+            out.writeInt(i);
+          }
+        } else {
+          Integer[] ints = (Integer[]) value;
+          out.writeInt(ints.length);
+          for (Integer i : ints) {
+            out.writeInt(i);
+          }
+        }
+        break;
+
+      case TAG_LONG_ARRAY:
+        if (value instanceof long[]) {
+          long[] longs = (long[]) value;
+          out.writeInt(longs.length);
+          for (long l : longs) {
+            out.writeLong(l);
+          }
+        } else {
+          Long[] longs = (Long[]) value;
+          out.writeInt(longs.length);
+          for (Long l : longs) {
+            out.writeLong(l);
+          }
+        }
+        break;
+
+      case TAG_LIST:
+        List<Object> items = new ArrayList<>();
+        ((NBTList) value).forEach(items::add);
+        int contentType = items.isEmpty() ? TAG_END : typeOf(items.get(0));
+        out.writeByte(contentType);
+        out.writeInt(items.size());
+        for (Object item : items) {
+          if (typeOf(item) != contentType) {
+            throw new IllegalArgumentException("NBT list cannot contain multiple tag types");
+          }
+          writePayload(out, item);
+        }
+        break;
+
+      case TAG_COMPOUND:
+        Map<String, Object> entries = entriesOf((NBTCompound) value);
+        for (Entry<String, Object> entry : entries.entrySet()) {
+          writeNamedTag(out, entry.getKey(), entry.getValue());
+        }
+        out.writeByte(TAG_END);
+        break;
+    }
+  }
+
+  private static int typeOf(Object value) {
+    if (value instanceof Byte) {
+      return TAG_BYTE;
+    } else if (value instanceof Short) {
+      return TAG_SHORT;
+    } else if (value instanceof Integer) {
+      return TAG_INT;
+    } else if (value instanceof Long) {
+      return TAG_LONG;
+    } else if (value instanceof Float) {
+      return TAG_FLOAT;
+    } else if (value instanceof Double) {
+      return TAG_DOUBLE;
+    } else if (value instanceof String) {
+      return TAG_STRING;
+    } else if (value instanceof byte[] || value instanceof Byte[]) {
+      return TAG_BYTE_ARRAY;
+    } else if (value instanceof int[] || value instanceof Integer[]) {
+      return TAG_INT_ARRAY;
+    } else if (value instanceof long[] || value instanceof Long[]) {
+      return TAG_LONG_ARRAY;
+    } else if (value instanceof NBTList) {
+      return TAG_LIST;
+    } else if (value instanceof NBTCompound) {
+      return TAG_COMPOUND;
+    }
+    throw new IllegalArgumentException("Cannot serialize NBT value of type " + (value == null ? "null" : value.getClass().getName()));
+  }
+
+  private static Map<String, Object> entriesOf(NBTCompound compound) {
+    Map<String, Object> entries = new LinkedHashMap<>();
+    compound.forEach(entries::put);
+    return entries;
+  }
+
+  private NBTSerializer() {
+  }
+}
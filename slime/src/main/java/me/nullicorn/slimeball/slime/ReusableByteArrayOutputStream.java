@@ -0,0 +1,22 @@
+package me.nullicorn.slimeball.slime;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * A {@link ByteArrayOutputStream} whose internal array can be read without copying it, so that the same buffer can be filled and drained many times
+ *
+ * @author Nullicorn
+ */
+class ReusableByteArrayOutputStream extends ByteArrayOutputStream {
+
+  ReusableByteArrayOutputStream(int initialSize) {
+    super(initialSize);
+  }
+
+  /**
+   * @return The stream's internal array. Only the first {@link #size()} bytes are valid, and the array may be replaced by later writes
+   */
+  byte[] array() {
+    return buf;
+  }
+}
@@ -0,0 +1,63 @@
+package me.nullicorn.slimeball.slime;
+
+import com.github.luben.zstd.ZstdDictDecompress;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import me.nullicorn.slimeball.slime.exception.IllegalFormatException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A thread-safe set of {@link SlimeDictionary dictionaries}, looked up by ID when a reader finds data that was compressed with a dictionary
+ *
+ * @author Nullicorn
+ */
+public class SlimeDictionaries {
+
+  private final Map<Long, SlimeDictionary> dictionariesById = new ConcurrentHashMap<>();
+
+  /**
+   * Make a dictionary available to readers. Replaces any dictionary with the same ID
+   */
+  public void register(@NotNull SlimeDictionary dictionary) {
+    dictionariesById.put(dictionary.getId(), dictionary);
+  }
+
+  /**
+   * @return The dictionary with the provided ID, or null if none is registered
+   */
+  @Nullable
+  public SlimeDictionary get(long id) {
+    return dictionariesById.get(id);
+  }
+
+  /**
+   * @return Every registered dictionary
+   */
+  @NotNull
+  public Collection<SlimeDictionary> getAll() {
+    return dictionariesById.values();
+  }
+
+  /**
+   * Find the dictionary needed to decompress a zstd frame
+   *
+   * @param dictionaries The dictionaries available to the reader, or null if it has none
+   * @param id           The dictionary ID stored in the frame's header (0 if the frame does not use a dictionary)
+   * @return The prepared dictionary, or null if the frame does not need one
+   * @throws IllegalFormatException If the frame needs a dictionary that is not available
+   */
+  @Nullable
+  static ZstdDictDecompress getDecompressor(@Nullable SlimeDictionaries dictionaries, long id) throws IllegalFormatException {
+    if (id == 0) {
+      return null;
+    }
+
+    SlimeDictionary dictionary = dictionaries != null ? dictionaries.get(id) : null;
+    if (dictionary == null) {
+      throw new IllegalFormatException("Slime data was compressed with dictionary " + id + ", which is not available");
+    }
+    return dictionary.forDecompression();
+  }
+}
@@ -0,0 +1,98 @@
+package me.nullicorn.slimeball.slime;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Getter;
+import me.nullicorn.slimeball.slime.exception.IllegalFormatException;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A trained zstd dictionary, used to compress and decompress slime data more efficiently when many similar worlds are stored. Data compressed with a
+ * dictionary stores the dictionary's {@link #getId() ID}, so readers can tell which dictionary it needs
+ *
+ * @author Nullicorn
+ * @see SlimeDictionaryTrainer
+ * @see SlimeDictionaries
+ */
+public class SlimeDictionary {
+
+  /**
+   * The dictionary's ID, as stored in the dictionary itself and in every zstd frame compressed with it
+   */
+  @Getter
+  private final long id;
+
+  private final byte[] bytes;
+
+  private final Map<Integer, ZstdDictCompress> compressorsByLevel = new HashMap<>();
+  private       ZstdDictDecompress             decompressor;
+
+  /**
+   * @param bytes The dictionary's contents, as produced by zstd's dictionary trainer
+   * @throws IllegalFormatException If the bytes are not a trained zstd dictionary (which always has a non-zero ID)
+   */
+  public SlimeDictionary(@NotNull byte[] bytes) throws IllegalFormatException {
+    long id = Zstd.getDictIdFromDict(bytes);
+    if (id == 0) {
+      throw new IllegalFormatException("Slime dictionaries must be trained zstd dictionaries");
+    }
+    this.id = id;
+    this.bytes = bytes.clone();
+  }
+
+  /**
+   * Read a dictionary from a file
+   *
+   * @throws IOException If the file could not be read or is not a trained zstd dictionary
+   */
+  public static SlimeDictionary load(@NotNull File file) throws IOException {
+    return new SlimeDictionary(Files.readAllBytes(file.toPath()));
+  }
+
+  /**
+   * Write the dictionary to a file, so that it can later be {@link #load(File) loaded}
+   *
+   * @throws IOException If the file could not be written
+   */
+  public void save(@NotNull File file) throws IOException {
+    Files.write(file.toPath(), bytes);
+  }
+
+  /**
+   * @return A copy of the dictionary's contents
+   */
+  public byte[] getBytes() {
+    return bytes.clone();
+  }
+
+  /**
+   * @return The dictionary prepared for compressing at the provided zstd level
+   */
+  synchronized ZstdDictCompress forCompression(int level) {
+    return compressorsByLevel.computeIfAbsent(level, key -> new ZstdDictCompress(bytes, key));
+  }
+
+  /**
+   * @return The dictionary prepared for decompressing
+   */
+  synchronized ZstdDictDecompress forDecompression() {
+    if (decompressor == null) {
+      decompressor = new ZstdDictDecompress(bytes);
+    }
+    return decompressor;
+  }
+
+  @Override
+  public String toString() {
+    return "SlimeDictionary{" +
+        "id=" + id +
+        ", size=" + bytes.length +
+        '}';
+  }
+}
@@ -0,0 +1,193 @@
+package me.nullicorn.slimeball.slime;
+
+import com.github.luben.zstd.ZstdDictTrainer;
+import com.github.luben.zstd.ZstdException;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import lombok.Getter;
+import me.nullicorn.slimeball.slime.exception.IllegalFormatException;
+import me.nullicorn.slimeball.slime.exception.UnsupportedVersionException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Trains a {@link SlimeDictionary} from a corpus of slime files. Each chunk, and each block of NBT, in the files is used as a separate sample
+ *
+ * <p>Usage: {@code java me.nullicorn.slimeball.slime.SlimeDictionaryTrainer <output file> <dictionary size> <slime files or directories...>}
+ *
+ * @author Nullicorn
+ */
+public class SlimeDictionaryTrainer {
+
+  /**
+   * How many times larger than the dictionary the samples are allowed to be in total, as recommended by zstd
+   */
+  private static final int SAMPLES_PER_DICTIONARY_SIZE = 100;
+
+  private final ZstdDictTrainer trainer;
+
+  /**
+   * The dictionaries needed to read slime files that were themselves compressed with a dictionary, or null if the corpus does not use any
+   */
+  @Nullable
+  private final SlimeDictionaries dictionaries;
+
+  /**
+   * The number of samples that have been added to the trainer
+   */
+  @Getter
+  private int sampleCount;
+
+  /**
+   * Whether the trainer has as many samples as it can hold. Any more samples are ignored
+   */
+  @Getter
+  private boolean full;
+
+  /**
+   * @param dictionarySize The maximum size of the trained dictionary, in bytes
+   */
+  public SlimeDictionaryTrainer(int dictionarySize) {
+    this(dictionarySize, null);
+  }
+
+  /**
+   * @param dictionarySize The maximum size of the trained dictionary, in bytes
+   * @param dictionaries   The dictionaries needed to read the corpus, or null if it was compressed without any
+   */
+  public SlimeDictionaryTrainer(int dictionarySize, @Nullable SlimeDictionaries dictionaries) {
+    if (dictionarySize <= 0) {
+      throw new IllegalArgumentException("Dictionary size must be positive: " + dictionarySize);
+    }
+    long sampleBufferSize = (long) dictionarySize * SAMPLES_PER_DICTIONARY_SIZE;
+    this.trainer = new ZstdDictTrainer((int) Math.min(sampleBufferSize, Integer.MAX_VALUE - 8), dictionarySize);
+    this.dictionaries = dictionaries;
+  }
+
+  /**
+   * Add samples from a slime file, or from every slime file in a directory (and its subdirectories)
+   *
+   * @throws IOException If a slime file could not be read or was in an invalid format
+   */
+  public void addFile(@NotNull File file) throws IOException {
+    if (file.isDirectory()) {
+      File[] children = file.listFiles();
+      if (children != null) {
+        for (File child : children) {
+          if (child.isDirectory() || child.getName().endsWith(".slime")) {
+            addFile(child);
+          }
+        }
+      }
+      return;
+    }
+
+    try (SlimeInputStream in = new SlimeInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      in.setDictionaries(dictionaries);
+      addSamples(in);
+    } catch (IOException e) {
+      throw new IOException("Unable to read samples from " + file, e);
+    }
+  }
+
+  /**
+   * Add samples from slime data. The input is read up to the end of the slime data
+   *
+   * @throws IOException If the data could not be read or was in an invalid format
+   */
+  public void addSamples(@NotNull SlimeInputStream in) throws IOException {
+    // Header
+    if (in.readUnsignedShort() != BinarySlimeWorld.MAGIC_NUMBERS) {
+      throw new IllegalFormatException("Invalid header for slime data");
+    }
+    byte version = in.readByte();
+    if (!SlimeInputStream.isVersionSupported(version)) {
+      throw new UnsupportedVersionException(version);
+    }
+    in.skipFully(4); // Min chunk X & Z
+    int width = in.readUnsignedShort();
+    int depth = in.readUnsignedShort();
+    in.skipFully((int) Math.ceil((width * depth) / 8d));
+
+    // Each chunk is its own sample
+    ByteBuffer chunkData = ByteBuffer.wrap(in.readCompressed());
+    while (chunkData.hasRemaining()) {
+      int start = chunkData.position();
+      int length = ChunkBufferReader.skipChunk(chunkData);
+      addSample(chunkData.array(), start, length);
+    }
+
+    // Tile entities, entities & extra NBT
+    addSample(in.readCompressed());
+    if (version >= 3 && in.readBoolean()) {
+      addSample(in.readCompressed());
+    }
+    if (version >= 2) {
+      addSample(in.readCompressed());
+    }
+  }
+
+  /**
+   * Add a single sample of uncompressed slime data
+   */
+  public void addSample(@NotNull byte[] sample) {
+    if (full || sample.length == 0) {
+      return;
+    }
+    if (trainer.addSample(sample)) {
+      sampleCount++;
+    } else {
+      full = true;
+    }
+  }
+
+  private void addSample(byte[] bytes, int offset, int length) {
+    byte[] sample = new byte[length];
+    System.arraycopy(bytes, offset, sample, 0, length);
+    addSample(sample);
+  }
+
+  /**
+   * Train a dictionary from the samples added so far
+   *
+   * @throws IllegalFormatException If there were not enough samples to train a dictionary from
+   */
+  public SlimeDictionary train() throws IllegalFormatException {
+    byte[] dictionary;
+    try {
+      dictionary = trainer.trainSamples();
+    } catch (ZstdException e) {
+      throw new IllegalFormatException("Unable to train dictionary from " + sampleCount + " samples", e);
+    }
+    return new SlimeDictionary(dictionary);
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 3) {
+      System.err.println("Usage: SlimeDictionaryTrainer <output file> <dictionary size> <slime files or directories...>");
+      System.exit(1);
+      return;
+    }
+
+    int dictionarySize;
+    try {
+      dictionarySize = Integer.parseInt(args[1]);
+    } catch (NumberFormatException e) {
+      System.err.println("Invalid dictionary size: " + args[1]);
+      System.exit(1);
+      return;
+    }
+
+    SlimeDictionaryTrainer trainer = new SlimeDictionaryTrainer(dictionarySize);
+    for (int i = 2; i < args.length; i++) {
+      trainer.addFile(new File(args[i]));
+    }
+
+    SlimeDictionary dictionary = trainer.train();
+    dictionary.save(new File(args[0]));
+    System.out.println("Trained dictionary " + dictionary.getId() + " from " + trainer.getSampleCount() + " samples");
+  }
+}
@@ -0,0 +1,120 @@
+package me.nullicorn.slimeball.slime;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import lombok.Getter;
+import me.nullicorn.slimeball.slime.SlimeLoadMetrics.Blob;
+
+/**
+ * Everything about a slime file that can be read without decompressing it. See {@link SlimeInputStream#readHeader()} and {@link
+ * MappedSlimeReader#readHeader()}
+ *
+ * @author Nullicorn
+ */
+public class SlimeHeader {
+
+  @Getter
+  private final byte  version;
+  @Getter
+  private final short minChunkX;
+  @Getter
+  private final short minChunkZ;
+  @Getter
+  private final int   width;
+  @Getter
+  private final int   depth;
+
+  private final boolean hasEntities;
+
+  /**
+   * The number of chunks present in the {@link #getChunkBitmask() chunk bitmask}
+   */
+  @Getter
+  private final int populatedChunkCount;
+
+  /**
+   * The total size of the file, in bytes, up to the end of the last compressed blob
+   */
+  @Getter
+  private final long totalSize;
+
+  private final BitSet chunkBitmask;
+  private final long[] compressedSizes;
+  private final long[] uncompressedSizes;
+
+  SlimeHeader(byte version, short minChunkX, short minChunkZ, int width, int depth, BitSet chunkBitmask, boolean hasEntities, long totalSize,
+      long[] compressedSizes, long[] uncompressedSizes) {
+    this.version = version;
+    this.minChunkX = minChunkX;
+    this.minChunkZ = minChunkZ;
+    this.width = width;
+    this.depth = depth;
+    this.chunkBitmask = chunkBitmask;
+    this.hasEntities = hasEntities;
+    this.populatedChunkCount = chunkBitmask.cardinality();
+    this.totalSize = totalSize;
+    this.compressedSizes = compressedSizes;
+    this.uncompressedSizes = uncompressedSizes;
+  }
+
+  /**
+   * @return A copy of the file's chunk bitmask, indexed the same as in {@link BinarySlimeWorld}
+   */
+  public BitSet getChunkBitmask() {
+    return (BitSet) chunkBitmask.clone();
+  }
+
+  /**
+   * @return Whether or not the file contains entity data. Always false for files older than version 3
+   */
+  public boolean hasEntities() {
+    return hasEntities;
+  }
+
+  /**
+   * @return Whether or not the file contains the provided blob. Entities are only present in version 3+ files that have entities, and extra data
+   *     is only present in version 2+ files
+   */
+  public boolean hasBlob(Blob blob) {
+    return compressedSizes[blob.ordinal()] >= 0;
+  }
+
+  /**
+   * @return Compressed size of the blob, in bytes, or -1 if the file does not contain it
+   */
+  public long getCompressedSize(Blob blob) {
+    return compressedSizes[blob.ordinal()];
+  }
+
+  /**
+   * @return Uncompressed size of the blob, in bytes, or -1 if the file does not contain it
+   */
+  public long getUncompressedSize(Blob blob) {
+    return uncompressedSizes[blob.ordinal()];
+  }
+
+  /**
+   * @return Empty arrays for the sizes of each blob, with every blob marked as missing
+   */
+  static long[] newSizeArray() {
+    long[] sizes = new long[Blob.values().length];
+    Arrays.fill(sizes, -1);
+    return sizes;
+  }
+
+  @Override
+  public String toString() {
+    return "SlimeHeader{" +
+        "version=" + version +
+        ", minChunkX=" + minChunkX +
+        ", minChunkZ=" + minChunkZ +
+        ", width=" + width +
+        ", depth=" + depth +
+        ", populatedChunkCount=" + populatedChunkCount +
+        ", hasEntities=" + hasEntities +
+        ", totalSize=" + totalSize +
+        ", compressedSizes=" + Arrays.toString(compressedSizes) +
+        ", uncompressedSizes=" + Arrays.toString(uncompressedSizes) +
+        '}';
+  }
+}
@@ -1,6 +1,9 @@
 package me.nullicorn.slimeball.slime;
 
 import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.ZstdInputStream;
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.EOFException;
@@ -9,16 +12,23 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.ByteBuffer;
 import java.util.BitSet;
+import lombok.Getter;
+import lombok.Setter;
 import me.nullicorn.nedit.NBTInputStream;
 import me.nullicorn.nedit.type.NBTCompound;
+import me.nullicorn.slimeball.slime.SlimeLoadMetrics.Blob;
 import me.nullicorn.slimeball.slime.api.ChunkCoordinates;
 import me.nullicorn.slimeball.slime.api.ChunkSectionCoordinates;
 import me.nullicorn.slimeball.slime.api.NibbleArray;
 import me.nullicorn.slimeball.slime.api.SlimeWorld;
 import me.nullicorn.slimeball.slime.exception.IllegalFormatException;
 import me.nullicorn.slimeball.slime.exception.UnsupportedVersionException;
+import me.nullicorn.slimeball.slime.jfr.SlimeEvents;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * @author Nullicorn
@@ -30,6 +40,39 @@ public class SlimeInputStream extends DataInputStream {
    */
   protected static final byte[] SUPPORTED_VERSIONS = {1, 2, 3};
 
+  /**
+   * The size of the buffer between the zstd decompressor and the chunk decoder when reading in {@link ChunkLoadMode#STREAMING streaming} mode
+   */
+  static final int STREAMING_BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * The maximum size of a zstd frame header, which holds the ID of the dictionary that the frame was compressed with (if any)
+   */
+  static final int MAX_FRAME_HEADER_SIZE = 18;
+
+  /**
+   * The number of threads used to decode chunks when reading in {@link ChunkLoadMode#PARALLEL parallel} mode
+   */
+  @Getter
+  @Setter
+  private int parallelism = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * The dictionaries that compressed data may need to be decompressed with, or null if the data is not expected to use any
+   */
+  @Getter
+  @Setter
+  @Nullable
+  private SlimeDictionaries dictionaries;
+
+  /**
+   * Where the time spent in each phase of reading is recorded, or null if it should not be recorded
+   */
+  @Getter
+  @Setter
+  @Nullable
+  private SlimeLoadMetrics metrics;
+
   /**
    * @param file File to read slime data from
    * @throws FileNotFoundException If the provided file does not exist
@@ -46,12 +89,26 @@ public class SlimeInputStream extends DataInputStream {
   }
 
   /**
-   * Read an entire slime file from the input stream
+   * Read an entire slime file from the input stream, decoding all of its chunks immediately
    *
    * @return The deserialized slime file
    * @throws IOException If the data could not be read or was in an invalid format
    */
   public SlimeWorld readFully() throws IOException {
+    return readFully(ChunkLoadMode.EAGER);
+  }
+
+  /**
+   * Read an entire slime file from the input stream
+   *
+   * @param chunkLoadMode When the chunks in the file should be decoded
+   * @return The deserialized slime file
+   * @throws IOException If the data could not be read or was in an invalid format
+   */
+  public SlimeWorld readFully(@NotNull ChunkLoadMode chunkLoadMode) throws IOException {
+    Object readEvent = SlimeEvents.beginRead();
+    long allocatedBefore = metrics != null ? SlimeLoadMetrics.currentThreadAllocatedBytes() : -1;
+
     // Read magic numbers
     int header = readUnsignedShort();
     if (header != BinarySlimeWorld.MAGIC_NUMBERS) {
@@ -73,41 +130,119 @@ public class SlimeInputStream extends DataInputStream {
     // Chunk bitmask & compressed chunk data
     int bitmaskSize = (int) Math.ceil((width * depth) / 8d);
     BitSet chunkBitmask = readBitSet(bitmaskSize);
-    byte[] chunkData = readCompressed();
+    BinarySlimeWorld world = BinarySlimeWorld.builder()
+        .version(version)
+        .minChunkX(minChunkX)
+        .minChunkZ(minChunkZ)
+        .width(width)
+        .depth(depth)
+        .chunkBitmask(chunkBitmask)
+        .chunkLoadMode(chunkLoadMode)
+        .parallelism(parallelism)
+        .loadMetrics(metrics)
+        .build();
+    if (chunkLoadMode == ChunkLoadMode.STREAMING) {
+      readCompressedChunks(world);
+    } else {
+      world.setRawChunkData(ByteBuffer.wrap(readCompressed(Blob.CHUNKS)));
+    }
 
     // Compressed tile entities
-    NBTCompound tileEntityData = readCompressedCompound();
+    world.setTileEntityData(readCompressedCompound(Blob.TILE_ENTITIES));
 
     // Compressed entities (version 3+ only)
+    if (version >= 3) {
+      boolean hasEntities = readBoolean();
+      world.setHasEntities(hasEntities);
+      if (hasEntities) {
+        world.setEntityData(readCompressedCompound(Blob.ENTITIES));
+      }
+    }
+
+    // Compressed "extra" NBT (version 2+ only)
+    if (version >= 2) {
+      world.setExtraData(readCompressedCompound(Blob.EXTRA));
+    }
+
+    world.loadChunkData();
+    if (metrics != null && allocatedBefore >= 0) {
+      metrics.recordAllocatedBytes(SlimeLoadMetrics.currentThreadAllocatedBytes() - allocatedBefore);
+    }
+    SlimeEvents.endRead(readEvent, version, width, depth, chunkBitmask.cardinality(), chunkLoadMode.name());
+    return world;
+  }
+
+  /**
+   * Read a slime file's metadata and the sizes of its compressed blobs, without decompressing anything. Compressed data is skipped instead of
+   * read, which for files means seeking past it
+   *
+   * @return The file's header
+   * @throws IOException If the data could not be read, was in an invalid format, or ended before the last blob did
+   */
+  public SlimeHeader readHeader() throws IOException {
+    int header = readUnsignedShort();
+    if (header != BinarySlimeWorld.MAGIC_NUMBERS) {
+      throw new IllegalFormatException("Invalid header for slime data");
+    }
+
+    byte version = readByte();
+    if (!isVersionSupported(version)) {
+      throw new UnsupportedVersionException(version);
+    }
+
+    short minChunkX = readShort();
+    short minChunkZ = readShort();
+    int width = readUnsignedShort();
+    int depth = readUnsignedShort();
+
+    int bitmaskSize = (int) Math.ceil((width * depth) / 8d);
+    BitSet chunkBitmask = readBitSet(bitmaskSize);
+    long totalSize = 11 + bitmaskSize;
+
+    long[] compressedSizes = SlimeHeader.newSizeArray();
+    long[] uncompressedSizes = SlimeHeader.newSizeArray();
+    totalSize += skipCompressed(Blob.CHUNKS, compressedSizes, uncompressedSizes);
+    totalSize += skipCompressed(Blob.TILE_ENTITIES, compressedSizes, uncompressedSizes);
+
     boolean hasEntities = false;
-    NBTCompound entityData = null;
     if (version >= 3) {
       hasEntities = readBoolean();
+      totalSize++;
       if (hasEntities) {
-        entityData = readCompressedCompound();
+        totalSize += skipCompressed(Blob.ENTITIES, compressedSizes, uncompressedSizes);
       }
     }
 
-    // Compressed "extra" NBT (version 2+ only)
-    NBTCompound extraData = null;
     if (version >= 2) {
-      extraData = readCompressedCompound();
+      totalSize += skipCompressed(Blob.EXTRA, compressedSizes, uncompressedSizes);
     }
 
-    return BinarySlimeWorld.builder()
-        .version(version)
-        .minChunkX(minChunkX)
-        .minChunkZ(minChunkZ)
-        .width(width)
-        .depth(depth)
-        .chunkBitmask(chunkBitmask)
-        .rawChunkData(chunkData)
-        .tileEntityData(tileEntityData)
-        .hasEntities(hasEntities)
-        .entityData(entityData)
-        .extraData(extraData)
-        .build()
-        .loadChunkData();
+    return new SlimeHeader(version, minChunkX, minChunkZ, width, depth, chunkBitmask, hasEntities, totalSize, compressedSizes, uncompressedSizes);
+  }
+
+  /**
+   * Skip a compressed blob in the input stream, recording its sizes
+   *
+   * @return The number of bytes that the blob took up, including its sizes
+   */
+  private long skipCompressed(Blob blob, long[] compressedSizes, long[] uncompressedSizes) throws IOException {
+    int compressedSize = readInt();
+    int uncompressedSize = readInt();
+    if (compressedSize < 0 || uncompressedSize < 0) {
+      throw new IllegalFormatException("Compressed data cannot have a negative length");
+    }
+
+    // Files can be skipped past their end, so the last byte is read to make sure the blob is all there
+    if (compressedSize > 0) {
+      skipFully(compressedSize - 1);
+      if (read() == -1) {
+        throw new EOFException("Unexpectedly reached end of slime data");
+      }
+    }
+
+    compressedSizes[blob.ordinal()] = compressedSize;
+    uncompressedSizes[blob.ordinal()] = uncompressedSize;
+    return 8 + compressedSize;
   }
 
   /**
@@ -118,6 +253,7 @@ public class SlimeInputStream extends DataInputStream {
    * @throws IOException If the data could not be read
    */
   public ChunkData readChunk(SlimeWorld file, ChunkCoordinates coordinates) throws IOException {
+    Object chunkReadEvent = SlimeEvents.beginChunkRead();
     ChunkData chunk = new ChunkData(file, coordinates);
 
     // Heightmap
@@ -147,6 +283,7 @@ public class SlimeInputStream extends DataInputStream {
     chunk.setBiomes(biomes);
     chunk.setSectionBitmask(sectionBitmask);
     chunk.setSections(sections);
+    SlimeEvents.endChunkRead(chunkReadEvent, coordinates.getX(), coordinates.getZ(), sectionBitmask.cardinality());
     return chunk;
   }
 
@@ -158,7 +295,6 @@ public class SlimeInputStream extends DataInputStream {
    * @return Chunk section read from the stream
    * @throws IOException If the data could not be read
    */
-  @SuppressWarnings("ResultOfMethodCallIgnored")
   public ChunkSectionData readChunkSection(ChunkData column, int sectionY) throws IOException {
     ChunkSectionData section = new ChunkSectionData(column, new ChunkSectionCoordinates(column.getCoordinates(), sectionY));
 
@@ -170,7 +306,7 @@ public class SlimeInputStream extends DataInputStream {
 
     // HypixelBlocks3 (format unknown; skip)
     int hypixelBlocks3Length = readUnsignedShort();
-    skip(hypixelBlocks3Length);
+    skipFully(hypixelBlocks3Length);
 
     section.setBlockIds(blockIds);
     section.setBlockStates(blockStates);
@@ -186,7 +322,7 @@ public class SlimeInputStream extends DataInputStream {
    * @throws IOException If the data could not be read
    */
   public NBTCompound readCompressedCompound() throws IOException {
-    return new NBTInputStream(new ByteArrayInputStream(readCompressed())).readFully();
+    return readCompressedCompound(null);
   }
 
   /**
@@ -197,10 +333,101 @@ public class SlimeInputStream extends DataInputStream {
    * @throws IOException If that data could not be read
    */
   public byte[] readCompressed() throws IOException {
+    return readCompressed(null);
+  }
+
+  /**
+   * Same as {@link #readCompressedCompound()}, but records the time spent as the provided part of the file
+   *
+   * @param blob The part of the file being read, or null if it should not be recorded in the {@link #metrics}
+   */
+  private NBTCompound readCompressedCompound(@Nullable Blob blob) throws IOException {
+    byte[] uncompressed = readCompressed(blob);
+
+    long startTime = System.nanoTime();
+    NBTCompound compound = new NBTInputStream(new ByteArrayInputStream(uncompressed)).readFully();
+    if (metrics != null && blob != null) {
+      metrics.recordNbtParse(System.nanoTime() - startTime);
+    }
+    return compound;
+  }
+
+  /**
+   * Same as {@link #readCompressed()}, but records the time spent as the provided part of the file
+   *
+   * @param blob The part of the file being read, or null if it should not be recorded in the {@link #metrics}
+   */
+  private byte[] readCompressed(@Nullable Blob blob) throws IOException {
+    long readStartTime = System.nanoTime();
     int compressedSize = readInt();
     int uncompressedSize = readInt();
     byte[] compressedBytes = readByteArray(compressedSize);
-    return Zstd.decompress(compressedBytes, uncompressedSize);
+
+    Object decompressEvent = SlimeEvents.beginDecompress();
+    long decompressStartTime = System.nanoTime();
+    ZstdDictDecompress dictionary = SlimeDictionaries.getDecompressor(dictionaries, Zstd.getDictIdFromFrame(compressedBytes));
+    byte[] uncompressed = dictionary != null
+        ? Zstd.decompress(compressedBytes, dictionary, uncompressedSize)
+        : Zstd.decompress(compressedBytes, uncompressedSize);
+    SlimeEvents.endDecompress(decompressEvent, blob != null ? blob.name() : null, compressedSize, uncompressedSize);
+
+    if (metrics != null && blob != null) {
+      metrics.recordFileRead(decompressStartTime - readStartTime, 8 + compressedSize);
+      metrics.recordDecompress(blob, System.nanoTime() - decompressStartTime, compressedSize, uncompressedSize);
+    }
+    return uncompressed;
+  }
+
+  /**
+   * Read the world's compressed chunk data from the input stream, decoding each chunk as soon as it is decompressed. The decompressed data is never
+   * held in memory all at once
+   *
+   * @param world The world to decode chunks into
+   * @throws IOException If the data could not be read or decompressed
+   */
+  private void readCompressedChunks(BinarySlimeWorld world) throws IOException {
+    int compressedSize = readInt();
+    int uncompressedSize = readInt();
+
+    LimitedInputStream compressed = new LimitedInputStream(in, compressedSize);
+    PushbackInputStream frame = new PushbackInputStream(compressed, MAX_FRAME_HEADER_SIZE);
+    ZstdDictDecompress dictionary = SlimeDictionaries.getDecompressor(dictionaries, peekDictionaryId(frame));
+
+    ZstdInputStream decompressor = new ZstdInputStream(frame);
+    if (dictionary != null) {
+      decompressor.setDict(dictionary);
+    }
+    try (SlimeInputStream chunkIn = new SlimeInputStream(new BufferedInputStream(decompressor, STREAMING_BUFFER_SIZE))) {
+      world.loadChunkData(chunkIn);
+    }
+
+    // Skip anything that the decompressor didn't need (e.g. padding after the zstd frame)
+    skipFully((int) compressed.getRemaining());
+
+    // Reading & decompressing happened while the chunks were decoded, so that time is counted as decoding
+    if (metrics != null) {
+      metrics.recordFileRead(0, 8 + compressedSize);
+      metrics.recordDecompress(Blob.CHUNKS, 0, compressedSize, uncompressedSize);
+    }
+  }
+
+  /**
+   * Read the ID of the dictionary that a zstd frame was compressed with, without consuming any of the frame
+   *
+   * @return The frame's dictionary ID, or 0 if it was compressed without one
+   */
+  static long peekDictionaryId(PushbackInputStream frame) throws IOException {
+    byte[] header = new byte[MAX_FRAME_HEADER_SIZE];
+    int length = 0;
+    int read;
+    while (length < header.length && (read = frame.read(header, length, header.length - length)) != -1) {
+      length += read;
+    }
+    frame.unread(header, 0, length);
+
+    byte[] frameHeader = new byte[length];
+    System.arraycopy(header, 0, frameHeader, 0, length);
+    return Zstd.getDictIdFromFrame(frameHeader);
   }
 
   /**
@@ -211,7 +438,7 @@ public class SlimeInputStream extends DataInputStream {
    */
   public NibbleArray readNibbleArray() throws IOException {
     byte[] nibbleArrayBytes = readByteArray(2048);
-    return new NibbleArray(nibbleArrayBytes);
+    return NibbleArray.of(nibbleArrayBytes);
   }
 
   /**
@@ -235,13 +462,26 @@ public class SlimeInputStream extends DataInputStream {
    */
   public byte[] readByteArray(int length) throws IOException {
     byte[] bytes = new byte[length];
-    int bytesRead = in.read(bytes);
-    if (bytesRead == -1) {
+    try {
+      readFully(bytes);
+    } catch (EOFException e) {
       throw new EOFException("Unexpectedly reached end of slime data");
     }
     return bytes;
   }
 
+  /**
+   * Skip exactly the provided number of bytes in the input stream
+   *
+   * @param length Number of bytes to skip
+   * @throws IOException If the end of the stream is reached before all bytes were skipped
+   */
+  public void skipFully(int length) throws IOException {
+    if (skipBytes(length) != length) {
+      throw new EOFException("Unexpectedly reached end of slime data");
+    }
+  }
+
   /**
    * @return Whether or not this input stream supports deserialization for that slime version
    */
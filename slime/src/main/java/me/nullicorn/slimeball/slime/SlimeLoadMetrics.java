@@ -0,0 +1,178 @@
+package me.nullicorn.slimeball.slime;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Time spent in each phase of reading a slime file, and the amount of data involved. Readers only record into metrics that are given to them
+ * (see {@link SlimeInputStream#setMetrics(SlimeLoadMetrics)} and {@link MappedSlimeReader#setMetrics(SlimeLoadMetrics)}), and worlds read with
+ * metrics keep recording into them when chunks are decoded {@link ChunkLoadMode#LAZY lazily}
+ * <p>
+ * All methods are thread-safe
+ *
+ * @author Nullicorn
+ */
+public class SlimeLoadMetrics {
+
+  /**
+   * The compressed sections of a slime file
+   */
+  public enum Blob {
+    CHUNKS,
+    TILE_ENTITIES,
+    ENTITIES,
+    EXTRA
+  }
+
+  private long fileReadNanos;
+  private long fileBytes;
+
+  private final long[] decompressNanos   = new long[Blob.values().length];
+  private final long[] compressedBytes   = new long[Blob.values().length];
+  private final long[] uncompressedBytes = new long[Blob.values().length];
+
+  private long nbtParseNanos;
+  private long chunkDecodeNanos;
+  private long chunksDecoded;
+
+  private long allocatedBytes = -1;
+
+  /**
+   * @param nanos Time spent reading (or mapping) the file
+   * @param bytes Number of bytes read from the file
+   */
+  public synchronized void recordFileRead(long nanos, long bytes) {
+    fileReadNanos += nanos;
+    fileBytes += bytes;
+  }
+
+  /**
+   * @param blob              The part of the file that was decompressed
+   * @param nanos             Time spent decompressing it
+   * @param compressedBytes   Size of the compressed data
+   * @param uncompressedBytes Size of the data once it was decompressed
+   */
+  public synchronized void recordDecompress(Blob blob, long nanos, long compressedBytes, long uncompressedBytes) {
+    this.decompressNanos[blob.ordinal()] += nanos;
+    this.compressedBytes[blob.ordinal()] += compressedBytes;
+    this.uncompressedBytes[blob.ordinal()] += uncompressedBytes;
+  }
+
+  /**
+   * @param nanos Time spent parsing an NBT compound that was already decompressed
+   */
+  public synchronized void recordNbtParse(long nanos) {
+    nbtParseNanos += nanos;
+  }
+
+  /**
+   * @param nanos  Time spent decoding the chunks (wall-clock time, if they were decoded in parallel)
+   * @param chunks Number of chunks that were decoded
+   */
+  public synchronized void recordChunkDecode(long nanos, long chunks) {
+    chunkDecodeNanos += nanos;
+    chunksDecoded += chunks;
+  }
+
+  /**
+   * @param bytes Number of bytes allocated by the thread that read the file, or a negative number if it could not be measured
+   */
+  public synchronized void recordAllocatedBytes(long bytes) {
+    if (bytes >= 0) {
+      allocatedBytes = Math.max(allocatedBytes, 0) + bytes;
+    }
+  }
+
+  /**
+   * @return Time spent reading the file from disk. For memory-mapped files, this is only the time taken to map the file; reading the mapped pages
+   *     is counted as part of decompression
+   */
+  public synchronized long getFileReadNanos() {
+    return fileReadNanos;
+  }
+
+  /**
+   * @return Number of bytes read from disk
+   */
+  public synchronized long getFileBytes() {
+    return fileBytes;
+  }
+
+  /**
+   * @return Time spent decompressing the blob. When chunks are {@link ChunkLoadMode#STREAMING streamed}, decompressing them is counted as part
+   *     of {@link #getChunkDecodeNanos() decoding} instead
+   */
+  public synchronized long getDecompressNanos(Blob blob) {
+    return decompressNanos[blob.ordinal()];
+  }
+
+  /**
+   * @return Compressed size of the blob, in bytes
+   */
+  public synchronized long getCompressedBytes(Blob blob) {
+    return compressedBytes[blob.ordinal()];
+  }
+
+  /**
+   * @return Uncompressed size of the blob, in bytes
+   */
+  public synchronized long getUncompressedBytes(Blob blob) {
+    return uncompressedBytes[blob.ordinal()];
+  }
+
+  /**
+   * @return Time spent parsing tile entities, entities and extra data once they were decompressed
+   */
+  public synchronized long getNbtParseNanos() {
+    return nbtParseNanos;
+  }
+
+  /**
+   * @return Time spent decoding chunks, including chunks that were decoded lazily after the file was read
+   */
+  public synchronized long getChunkDecodeNanos() {
+    return chunkDecodeNanos;
+  }
+
+  /**
+   * @return Number of chunks that have been decoded
+   */
+  public synchronized long getChunksDecoded() {
+    return chunksDecoded;
+  }
+
+  /**
+   * @return Number of bytes allocated on the heap by the thread that read the file, or -1 if the JVM cannot measure it. Chunks that are decoded
+   *     lazily or by other threads are not included
+   */
+  public synchronized long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  /**
+   * @return The number of bytes allocated so far by the current thread, or -1 if the JVM does not support measuring it
+   */
+  static long currentThreadAllocatedBytes() {
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if (threads instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean hotspotThreads = (com.sun.management.ThreadMXBean) threads;
+      if (hotspotThreads.isThreadAllocatedMemorySupported() && hotspotThreads.isThreadAllocatedMemoryEnabled()) {
+        return hotspotThreads.getThreadAllocatedBytes(Thread.currentThread().getId());
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "SlimeLoadMetrics{" +
+        "fileReadNanos=" + fileReadNanos +
+        ", fileBytes=" + fileBytes +
+        ", chunkDecompressNanos=" + decompressNanos[Blob.CHUNKS.ordinal()] +
+        ", nbtParseNanos=" + nbtParseNanos +
+        ", chunkDecodeNanos=" + chunkDecodeNanos +
+        ", chunksDecoded=" + chunksDecoded +
+        ", allocatedBytes=" + allocatedBytes +
+        '}';
+  }
+}
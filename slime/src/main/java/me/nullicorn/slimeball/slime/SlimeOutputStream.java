@@ -0,0 +1,348 @@
+package me.nullicorn.slimeball.slime;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.BitSet;
+import lombok.Getter;
+import lombok.Setter;
+import me.nullicorn.nedit.type.NBTCompound;
+import me.nullicorn.slimeball.slime.api.NibbleArray;
+import me.nullicorn.slimeball.slime.api.SlimeChunk;
+import me.nullicorn.slimeball.slime.api.SlimeChunkSection;
+import me.nullicorn.slimeball.slime.api.SlimeWorld;
+import me.nullicorn.slimeball.slime.exception.IllegalFormatException;
+import me.nullicorn.slimeball.slime.exception.UnsupportedVersionException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Writes slime worlds in the format read by {@link SlimeInputStream}
+ *
+ * @author Nullicorn
+ */
+public class SlimeOutputStream extends DataOutputStream {
+
+  /**
+   * The slime version written by {@link #writeFully(SlimeWorld)}
+   */
+  public static final byte LATEST_VERSION = 3;
+
+  /**
+   * The zstd compression level used for each compressed block of data (1 to 22; higher is smaller but slower)
+   */
+  @Getter
+  @Setter
+  private int compressionLevel = 3;
+
+  /**
+   * The number of threads zstd uses to compress each block of data. If 0, compression is done on the thread that is writing
+   */
+  @Getter
+  @Setter
+  private int compressionWorkers = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * The dictionary to compress data with, or null to compress without one. Readers need the same dictionary to decompress the output
+   */
+  @Getter
+  @Setter
+  @Nullable
+  private SlimeDictionary dictionary;
+
+  // Reused between writes so that saving many worlds doesn't allocate new buffers each time
+  private final ReusableByteArrayOutputStream uncompressedBuffer = new ReusableByteArrayOutputStream(64 * 1024);
+  private final ReusableByteArrayOutputStream compressedBuffer   = new ReusableByteArrayOutputStream(64 * 1024);
+  private final DataOutputStream              uncompressedOut    = new DataOutputStream(uncompressedBuffer);
+  private final byte[]                        sectionBytes       = new byte[4096];
+  private final byte[]                        nibbleBytes        = new byte[2048];
+
+  /**
+   * @param file File to write slime data to
+   * @throws FileNotFoundException If the file could not be created or opened
+   */
+  public SlimeOutputStream(File file) throws FileNotFoundException {
+    this(new FileOutputStream(file));
+  }
+
+  /**
+   * @param out Output stream to write slime data to
+   */
+  public SlimeOutputStream(@NotNull OutputStream out) {
+    super(out);
+  }
+
+  /**
+   * Write an entire world to the output stream, using the {@link #LATEST_VERSION latest} slime version
+   *
+   * @throws IOException If the data could not be written
+   */
+  public void writeFully(@NotNull SlimeWorld world) throws IOException {
+    writeFully(world, LATEST_VERSION);
+  }
+
+  /**
+   * Write an entire world to the output stream. Data that is not supported by the version is left out (entities before version 3, and extra data
+   * before version 2)
+   *
+   * @param version The slime version to write the world in
+   * @throws IOException If the data could not be written, or if the version is not supported
+   */
+  public void writeFully(@NotNull SlimeWorld world, byte version) throws IOException {
+    if (!SlimeInputStream.isVersionSupported(version)) {
+      throw new UnsupportedVersionException(version);
+    }
+
+    int width = world.getWidth();
+    int depth = world.getDepth();
+    if (width > 0xFFFF || depth > 0xFFFF) {
+      throw new IllegalFormatException("World is too large for the slime format (" + width + "x" + depth + " chunks)");
+    }
+
+    // Magic numbers & version
+    writeShort(BinarySlimeWorld.MAGIC_NUMBERS);
+    writeByte(version);
+
+    // Position & size of chunks
+    short minChunkX = world.getLowestChunkX();
+    short minChunkZ = world.getLowestChunkZ();
+    writeShort(minChunkX);
+    writeShort(minChunkZ);
+    writeShort(width);
+    writeShort(depth);
+
+    // Chunk bitmask & compressed chunk data
+    BitSet chunkBitmask = new BitSet(width * depth);
+    uncompressedBuffer.reset();
+    for (int z = 0; z < depth; z++) {
+      for (int x = 0; x < width; x++) {
+        SlimeChunk chunk = world.getChunk(minChunkX + x, minChunkZ + z);
+        if (chunk == null || world.isChunkEmpty(minChunkX + x, minChunkZ + z)) {
+          continue;
+        }
+        chunkBitmask.set(z * width + x);
+        writeChunk(uncompressedOut, chunk);
+      }
+    }
+    writeBitSet(chunkBitmask, (int) Math.ceil((width * depth) / 8d));
+    writeCompressedBuffer();
+
+    // Compressed tile entities
+    uncompressedBuffer.reset();
+    NBTSerializer.writeRootList(uncompressedOut, "tiles", world.getTileEntities());
+    writeCompressedBuffer();
+
+    // Compressed entities (version 3+ only)
+    if (version >= 3) {
+      writeBoolean(world.hasEntities());
+      if (world.hasEntities()) {
+        uncompressedBuffer.reset();
+        NBTSerializer.writeRootList(uncompressedOut, "entities", world.getEntities());
+        writeCompressedBuffer();
+      }
+    }
+
+    // Compressed "extra" NBT (version 2+ only)
+    if (version >= 2) {
+      writeCompressedCompound(world.getExtraData());
+    }
+  }
+
+  /**
+   * Write a chunk column (16 sections) to the output stream
+   *
+   * @throws IOException If the data could not be written
+   */
+  public void writeChunk(@NotNull SlimeChunk chunk) throws IOException {
+    writeChunk(this, chunk);
+  }
+
+  /**
+   * Write a chunk section (16x16x16 blocks) to the output stream
+   *
+   * @throws IOException If the data could not be written
+   */
+  public void writeChunkSection(@NotNull SlimeChunkSection section) throws IOException {
+    writeChunkSection(this, section);
+  }
+
+  /**
+   * Write a zstd-compressed NBT compound to the output stream
+   *
+   * @param compound The root compound to write, in the same structure returned by {@link SlimeInputStream#readCompressedCompound()}
+   * @throws IOException If the data could not be written
+   */
+  public void writeCompressedCompound(@NotNull NBTCompound compound) throws IOException {
+    uncompressedBuffer.reset();
+    NBTSerializer.writeRoot(uncompressedOut, compound);
+    writeCompressedBuffer();
+  }
+
+  /**
+   * Compress a block of data and write it to the output stream, prefixed with its compressed length and then its uncompressed length
+   *
+   * @throws IOException If the data could not be compressed or written
+   */
+  public void writeCompressed(@NotNull byte[] data, int offset, int length) throws IOException {
+    compressedBuffer.reset();
+    try (ZstdOutputStream zstdOut = newCompressor(compressedBuffer)) {
+      zstdOut.write(data, offset, length);
+    }
+
+    writeInt(compressedBuffer.size());
+    writeInt(length);
+    write(compressedBuffer.array(), 0, compressedBuffer.size());
+  }
+
+  /**
+   * Write a bit set to the output stream
+   *
+   * @param length The length of the bit set (in bytes)
+   * @throws IOException If the data could not be written
+   */
+  public void writeBitSet(@NotNull BitSet bitSet, int length) throws IOException {
+    write(Arrays.copyOf(bitSet.toByteArray(), length));
+  }
+
+  /**
+   * @return A zstd stream that compresses into the provided output, using this stream's compression settings
+   * @throws IOException If the compressor could not be created
+   */
+  ZstdOutputStream newCompressor(OutputStream out) throws IOException {
+    ZstdOutputStream zstdOut = new ZstdOutputStream(out, compressionLevel);
+    if (compressionWorkers > 0) {
+      zstdOut.setWorkers(compressionWorkers);
+    }
+    if (dictionary != null) {
+      zstdOut.setDict(dictionary.forCompression(compressionLevel));
+    }
+    return zstdOut;
+  }
+
+  /**
+   * Compress and write everything in the {@link #uncompressedBuffer}
+   */
+  private void writeCompressedBuffer() throws IOException {
+    uncompressedOut.flush();
+    writeCompressed(uncompressedBuffer.array(), 0, uncompressedBuffer.size());
+  }
+
+  private void writeChunk(DataOutputStream out, SlimeChunk chunk) throws IOException {
+    ChunkData chunkData = chunk instanceof ChunkData ? (ChunkData) chunk : null;
+
+    // Heightmap
+    int[] heightmap = chunkData != null && chunkData.heightmap != null
+        ? chunkData.heightmap
+        : computeHeightmap(chunk);
+    for (int height : heightmap) {
+      out.writeInt(height);
+    }
+
+    // Biome grid
+    if (chunkData != null && chunkData.biomes != null) {
+      out.write(chunkData.biomes);
+    } else {
+      for (int z = 0; z < 16; z++) {
+        for (int x = 0; x < 16; x++) {
+          out.writeByte(chunk.getBiomeAt(x, z));
+        }
+      }
+    }
+
+    // Chunk section bitmask & section data
+    BitSet sectionBitmask = new BitSet(16);
+    for (int sectionY = 0; sectionY < 16; sectionY++) {
+      if (chunk.hasSection(sectionY)) {
+        sectionBitmask.set(sectionY);
+      }
+    }
+    out.write(Arrays.copyOf(sectionBitmask.toByteArray(), 2));
+    for (int sectionY = 0; sectionY < 16; sectionY++) {
+      SlimeChunkSection section = chunk.getSection(sectionY);
+      if (section != null) {
+        writeChunkSection(out, section);
+      }
+    }
+  }
+
+  private void writeChunkSection(DataOutputStream out, SlimeChunkSection section) throws IOException {
+    ChunkSectionData sectionData = section instanceof ChunkSectionData ? (ChunkSectionData) section : null;
+
+    // Block light
+    if (sectionData != null) {
+      writeNibbleArray(out, sectionData.blockLight);
+    } else {
+      for (int i = 0; i < 4096; i++) {
+        sectionBytes[i] = section.getBlockLightAt(i & 0x0F, i >> 8, (i >> 4) & 0x0F);
+      }
+      writeNibbles(out, sectionBytes);
+    }
+
+    // Block IDs
+    section.copyLegacyBlockIds(sectionBytes, 0);
+    out.write(sectionBytes);
+
+    // Block states
+    if (sectionData != null) {
+      writeNibbleArray(out, sectionData.blockStates);
+    } else {
+      section.copyLegacyBlockStates(sectionBytes, 0);
+      writeNibbles(out, sectionBytes);
+    }
+
+    // Sky light
+    if (sectionData != null) {
+      writeNibbleArray(out, sectionData.skyLight);
+    } else {
+      for (int i = 0; i < 4096; i++) {
+        sectionBytes[i] = section.getSkyLightAt(i & 0x0F, i >> 8, (i >> 4) & 0x0F);
+      }
+      writeNibbles(out, sectionBytes);
+    }
+
+    // HypixelBlocks3 (not supported; always empty)
+    out.writeShort(0);
+  }
+
+  /**
+   * Write a nibble array's bytes as-is, or 2048 zeroes if the array is null. Uniform arrays are written without expanding them first
+   */
+  private void writeNibbleArray(DataOutputStream out, NibbleArray nibbles) throws IOException {
+    if (nibbles != null && !nibbles.isUniform()) {
+      out.write(nibbles.getAllBytes());
+    } else {
+      byte value = nibbles != null ? nibbles.get(0) : 0;
+      Arrays.fill(nibbleBytes, (byte) (value | (value << 4)));
+      out.write(nibbleBytes);
+    }
+  }
+
+  /**
+   * Pack 4096 nibbles (one per byte, in YZX order) into 2048 bytes and write them
+   */
+  private void writeNibbles(DataOutputStream out, byte[] unpacked) throws IOException {
+    for (int i = 0; i < nibbleBytes.length; i++) {
+      nibbleBytes[i] = (byte) ((unpacked[i * 2] & 0x0F) | ((unpacked[i * 2 + 1] & 0x0F) << 4));
+    }
+    out.write(nibbleBytes);
+  }
+
+  /**
+   * Compute a heightmap for a chunk that doesn't have one stored; the height of each column is one above its highest non-air block
+   */
+  private static int[] computeHeightmap(SlimeChunk chunk) {
+    int[] heightmap = new int[256];
+    chunk.forEachNonAir((x, y, z, block) -> {
+      int column = (z * 16) + x;
+      if (y + 1 > heightmap[column]) {
+        heightmap[column] = y + 1;
+      }
+    });
+    return heightmap;
+  }
+}
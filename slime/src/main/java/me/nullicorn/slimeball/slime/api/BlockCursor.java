@@ -0,0 +1,236 @@
+package me.nullicorn.slimeball.slime.api;
+
+import lombok.Getter;
+import me.nullicorn.slimeball.slime.BlockData;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A movable position in a {@link SlimeWorld}. The cursor remembers the chunk section it is in, so reading blocks near the cursor only looks up a
+ * new chunk or section when the cursor crosses into a different section. This makes it much faster than {@link SlimeWorld#getBlockAt(int, int,
+ * int)} for scanning blocks that are close together, such as in flood fills
+ * <p>
+ * Cursors are not thread-safe. If blocks in the world are changed after the cursor enters a section, the cursor may not see those changes until
+ * {@link #invalidate()} is called
+ *
+ * @author Nullicorn
+ */
+public final class BlockCursor {
+
+  /**
+   * The world that this cursor moves through
+   */
+  @Getter
+  private final SlimeWorld world;
+
+  /**
+   * The block coordinates of the cursor
+   */
+  @Getter
+  private int x, y, z;
+
+  /**
+   * The chunk and section containing the cursor, if they have been looked up yet. Missing sections (all air) are stored as null
+   */
+  private SlimeChunk        chunk;
+  private SlimeChunkSection section;
+
+  /**
+   * The coordinates of the section that {@link #section} was looked up for (in section coordinates)
+   */
+  private int sectionX, sectionY, sectionZ;
+
+  /**
+   * Whether or not {@link #chunk} and {@link #section} are up to date with the cursor's position
+   */
+  private boolean chunkResolved, resolved;
+
+  /**
+   * Create a cursor at (0, 0, 0) in the world
+   */
+  public BlockCursor(@NotNull SlimeWorld world) {
+    this.world = world;
+  }
+
+  /**
+   * Move the cursor to the provided block coordinates
+   *
+   * @return This cursor
+   */
+  public BlockCursor moveTo(int x, int y, int z) {
+    this.x = x;
+    this.y = y;
+    this.z = z;
+    if (resolved && (x >> 4 != sectionX || y >> 4 != sectionY || z >> 4 != sectionZ)) {
+      resolved = false;
+    }
+    return this;
+  }
+
+  /**
+   * Move the cursor by the provided number of blocks along each axis
+   *
+   * @return This cursor
+   */
+  public BlockCursor move(int dx, int dy, int dz) {
+    return moveTo(x + dx, y + dy, z + dz);
+  }
+
+  /**
+   * Forget the chunk section that the cursor is in, so that it is looked up again the next time a block is read. Only needed if the world's
+   * chunks were changed after the cursor entered the section
+   */
+  public void invalidate() {
+    chunkResolved = false;
+    resolved = false;
+    chunk = null;
+    section = null;
+  }
+
+  /**
+   * @return The chunk that the cursor is in, or null if the world does not have that chunk
+   */
+  public @Nullable SlimeChunk getChunk() {
+    resolve();
+    return chunk;
+  }
+
+  /**
+   * @return The state of the block at the cursor
+   */
+  public @NotNull SlimeBlockState getBlock() {
+    SlimeChunkSection section = getSection();
+    return section != null
+        ? section.getBlockAt(x & 0x0F, y & 0x0F, z & 0x0F)
+        : BlockData.AIR;
+  }
+
+  /**
+   * @return The block light level (0 to 15) at the cursor
+   */
+  public byte getBlockLight() {
+    SlimeChunkSection section = getSection();
+    return section != null
+        ? section.getBlockLightAt(x & 0x0F, y & 0x0F, z & 0x0F)
+        : 0;
+  }
+
+  /**
+   * @return The sky light level (0 to 15) at the cursor
+   */
+  public byte getSkyLight() {
+    SlimeChunkSection section = getSection();
+    return section != null
+        ? section.getSkyLightAt(x & 0x0F, y & 0x0F, z & 0x0F)
+        : 0;
+  }
+
+  /**
+   * Get the state of a block near the cursor without moving it. If the block is in the same section as the cursor, no lookup is needed
+   *
+   * @return The state of the block offset from the cursor by the provided number of blocks along each axis
+   */
+  public @NotNull SlimeBlockState getRelative(int dx, int dy, int dz) {
+    int relX = (x & 0x0F) + dx;
+    int relY = (y & 0x0F) + dy;
+    int relZ = (z & 0x0F) + dz;
+
+    if (((relX | relY | relZ) & ~0x0F) == 0) {
+      // Same section as the cursor
+      SlimeChunkSection section = getSection();
+      return section != null
+          ? section.getBlockAt(relX, relY, relZ)
+          : BlockData.AIR;
+    }
+
+    int blockY = y + dy;
+    if (blockY < 0 || blockY > 255) {
+      return BlockData.AIR;
+    }
+    return world.getBlockAt(x + dx, blockY, z + dz);
+  }
+
+  /**
+   * @return The state of the block directly above the cursor (+y)
+   */
+  public @NotNull SlimeBlockState getAbove() {
+    return getRelative(0, 1, 0);
+  }
+
+  /**
+   * @return The state of the block directly below the cursor (-y)
+   */
+  public @NotNull SlimeBlockState getBelow() {
+    return getRelative(0, -1, 0);
+  }
+
+  /**
+   * @return The state of the block north of the cursor (-z)
+   */
+  public @NotNull SlimeBlockState getNorth() {
+    return getRelative(0, 0, -1);
+  }
+
+  /**
+   * @return The state of the block south of the cursor (+z)
+   */
+  public @NotNull SlimeBlockState getSouth() {
+    return getRelative(0, 0, 1);
+  }
+
+  /**
+   * @return The state of the block east of the cursor (+x)
+   */
+  public @NotNull SlimeBlockState getEast() {
+    return getRelative(1, 0, 0);
+  }
+
+  /**
+   * @return The state of the block west of the cursor (-x)
+   */
+  public @NotNull SlimeBlockState getWest() {
+    return getRelative(-1, 0, 0);
+  }
+
+  /**
+   * @return The section that the cursor is in, or null if it is missing (all air)
+   */
+  private @Nullable SlimeChunkSection getSection() {
+    resolve();
+    return section;
+  }
+
+  /**
+   * Look up the chunk and section that the cursor is in, unless they already have been. The chunk is only looked up again if the cursor moved
+   * into a different chunk
+   */
+  private void resolve() {
+    if (resolved) {
+      return;
+    }
+
+    int newSectionX = x >> 4;
+    int newSectionZ = z >> 4;
+    if (!chunkResolved || newSectionX != sectionX || newSectionZ != sectionZ) {
+      chunk = world.getChunk(newSectionX, newSectionZ);
+      chunkResolved = true;
+    }
+
+    sectionX = newSectionX;
+    sectionY = y >> 4;
+    sectionZ = newSectionZ;
+    section = (chunk != null && y >= 0 && y <= 255)
+        ? chunk.getSection(sectionY)
+        : null;
+    resolved = true;
+  }
+
+  @Override
+  public String toString() {
+    return "BlockCursor{" +
+        "x=" + x +
+        ", y=" + y +
+        ", z=" + z +
+        '}';
+  }
+}
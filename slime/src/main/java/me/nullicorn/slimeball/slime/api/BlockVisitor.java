@@ -0,0 +1,22 @@
+package me.nullicorn.slimeball.slime.api;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A callback used to iterate over the blocks in a {@link BlockContainer}
+ *
+ * @author Nullicorn
+ */
+@FunctionalInterface
+public interface BlockVisitor {
+
+  /**
+   * Called once for each block that is visited
+   *
+   * @param x     X-coordinate of the block, relative to the container being iterated
+   * @param y     Y-coordinate of the block, relative to the container being iterated
+   * @param z     Z-coordinate of the block, relative to the container being iterated
+   * @param block The state of the block
+   */
+  void visit(int x, int y, int z, @NotNull SlimeBlockState block);
+}
@@ -1,6 +1,5 @@
 package me.nullicorn.slimeball.slime.api;
 
-import java.util.Objects;
 import lombok.Getter;
 
 /**
@@ -27,7 +26,24 @@ public class ChunkCoordinates {
    * @return Coordinates for a chunk that has the specified block coordinates in it
    */
   public static ChunkCoordinates fromBlockCoordinates(int x, int z) {
-    return new ChunkCoordinates((int) Math.floor(x / 16d), (int) Math.floor(z / 16d));
+    return new ChunkCoordinates(x >> 4, z >> 4);
+  }
+
+  /**
+   * @param chunkKey Packed chunk coordinates
+   * @return The coordinates stored in the key
+   * @see CoordinateKeys#chunkKey(int, int)
+   */
+  public static ChunkCoordinates fromKey(long chunkKey) {
+    return new ChunkCoordinates(CoordinateKeys.chunkX(chunkKey), CoordinateKeys.chunkZ(chunkKey));
+  }
+
+  /**
+   * @return These coordinates packed into a single key
+   * @see CoordinateKeys#chunkKey(int, int)
+   */
+  public long toChunkKey() {
+    return CoordinateKeys.chunkKey(x, z);
   }
 
   @Override
@@ -53,6 +69,6 @@ public class ChunkCoordinates {
 
   @Override
   public int hashCode() {
-    return Objects.hash(x, z);
+    return (31 * x) + z;
   }
 }
@@ -1,6 +1,5 @@
 package me.nullicorn.slimeball.slime.api;
 
-import java.util.Objects;
 import lombok.Getter;
 
 /**
@@ -25,6 +24,26 @@ public class ChunkSectionCoordinates extends ChunkCoordinates {
     this.y = y;
   }
 
+  /**
+   * @param sectionKey Packed chunk section coordinates
+   * @return The coordinates stored in the key
+   * @see CoordinateKeys#sectionKey(int, int, int)
+   */
+  public static ChunkSectionCoordinates fromSectionKey(long sectionKey) {
+    return new ChunkSectionCoordinates(
+        CoordinateKeys.sectionX(sectionKey),
+        CoordinateKeys.sectionY(sectionKey),
+        CoordinateKeys.sectionZ(sectionKey));
+  }
+
+  /**
+   * @return These coordinates packed into a single key
+   * @see CoordinateKeys#sectionKey(int, int, int)
+   */
+  public long toSectionKey() {
+    return CoordinateKeys.sectionKey(x, y, z);
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -41,6 +60,6 @@ public class ChunkSectionCoordinates extends ChunkCoordinates {
 
   @Override
   public int hashCode() {
-    return Objects.hash(x, y, z);
+    return (31 * ((31 * x) + y)) + z;
   }
 }
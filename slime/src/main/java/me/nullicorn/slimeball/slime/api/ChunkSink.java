@@ -0,0 +1,56 @@
+package me.nullicorn.slimeball.slime.api;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Receives a chunk's biomes and blocks when it is copied out of a slime world, such as into a chunk that a server is generating (see {@link
+ * #copyChunk(SlimeWorld, int, int, ChunkSink)})
+ *
+ * @author Nullicorn
+ */
+public interface ChunkSink {
+
+  /**
+   * Called once for each column in the chunk
+   *
+   * @param x     X-coordinate (0 to 15) of the column
+   * @param z     Z-coordinate (0 to 15) of the column
+   * @param biome Numeric ID of the column's biome
+   */
+  void setBiome(int x, int z, byte biome);
+
+  /**
+   * Called once for each non-air block in the chunk, from the bottom section to the top
+   *
+   * @param x     X-coordinate (0 to 15) of the block
+   * @param y     Y-coordinate (0 to 255) of the block
+   * @param z     Z-coordinate (0 to 15) of the block
+   * @param block The state of the block
+   */
+  void setBlock(int x, int y, int z, @NotNull SlimeBlockState block);
+
+  /**
+   * Copy the biomes and non-air blocks of a chunk into a sink. Biomes are copied even if the chunk has no blocks, and missing sections are skipped
+   * entirely
+   *
+   * @param chunkX X-coordinate of the chunk (in chunk coordinates)
+   * @param chunkZ Z-coordinate of the chunk (in chunk coordinates)
+   * @return Whether or not the world has the chunk. Nothing is copied if it doesn't
+   */
+  static boolean copyChunk(@NotNull SlimeWorld world, int chunkX, int chunkZ, @NotNull ChunkSink sink) {
+    SlimeChunk chunk = world.getChunk(chunkX, chunkZ);
+    if (chunk == null) {
+      return false;
+    }
+
+    for (int z = 0; z < 16; z++) {
+      for (int x = 0; x < 16; x++) {
+        sink.setBiome(x, z, chunk.getBiomeAt(x, z));
+      }
+    }
+    if (!chunk.isEmpty()) {
+      chunk.forEachNonAir(sink::setBlock);
+    }
+    return true;
+  }
+}
@@ -0,0 +1,76 @@
+package me.nullicorn.slimeball.slime.api;
+
+/**
+ * Packs chunk and chunk section coordinates into single {@code long} keys, so that they can be passed around and used as map keys without creating
+ * {@link ChunkCoordinates} objects
+ *
+ * @author Nullicorn
+ */
+public final class CoordinateKeys {
+
+  /**
+   * @param x X-coordinate of the chunk (in chunk coordinates)
+   * @param z Z-coordinate of the chunk (in chunk coordinates)
+   * @return A key unique to the chunk's coordinates
+   */
+  public static long chunkKey(int x, int z) {
+    return ((long) x << 32) | (z & 0xFFFFFFFFL);
+  }
+
+  /**
+   * @param x X-coordinate of a block
+   * @param z Z-coordinate of a block
+   * @return The {@link #chunkKey(int, int) key} of the chunk containing the block
+   */
+  public static long chunkKeyAtBlock(int x, int z) {
+    return chunkKey(x >> 4, z >> 4);
+  }
+
+  /**
+   * @return The X-coordinate (in chunk coordinates) stored in a {@link #chunkKey(int, int) chunk key}
+   */
+  public static int chunkX(long chunkKey) {
+    return (int) (chunkKey >> 32);
+  }
+
+  /**
+   * @return The Z-coordinate (in chunk coordinates) stored in a {@link #chunkKey(int, int) chunk key}
+   */
+  public static int chunkZ(long chunkKey) {
+    return (int) chunkKey;
+  }
+
+  /**
+   * @param x X-coordinate of the section's column (in chunk coordinates). Only the lowest 28 bits are kept
+   * @param y Index of the section in its column (0 being the bottom section and 15 being the top). Only the lowest 8 bits are kept
+   * @param z Z-coordinate of the section's column (in chunk coordinates). Only the lowest 28 bits are kept
+   * @return A key unique to the section's coordinates
+   */
+  public static long sectionKey(int x, int y, int z) {
+    return ((long) (x & 0xFFFFFFF) << 36) | ((long) (z & 0xFFFFFFF) << 8) | (y & 0xFF);
+  }
+
+  /**
+   * @return The X-coordinate (in chunk coordinates) stored in a {@link #sectionKey(int, int, int) section key}
+   */
+  public static int sectionX(long sectionKey) {
+    return (int) (sectionKey >> 36);
+  }
+
+  /**
+   * @return The section index stored in a {@link #sectionKey(int, int, int) section key}
+   */
+  public static int sectionY(long sectionKey) {
+    return (int) (sectionKey & 0xFF);
+  }
+
+  /**
+   * @return The Z-coordinate (in chunk coordinates) stored in a {@link #sectionKey(int, int, int) section key}
+   */
+  public static int sectionZ(long sectionKey) {
+    return (int) ((sectionKey << 28) >> 36);
+  }
+
+  private CoordinateKeys() {
+  }
+}
@@ -94,6 +94,16 @@ public final class EmptySlimeWorld implements SlimeWorld {
     return new NBTCompound();
   }
 
+  /**
+   * @param x X-coordinate of a block
+   * @param z Z-coordinate of a block
+   * @return -1, since the world has no blocks
+   */
+  @Override
+  public int getHighestBlockYAt(int x, int z) {
+    return -1;
+  }
+
   /**
    * @param x X-coordinate of the chunk (in chunk coordinates)
    * @param z Z-coordinate of the chunk (in chunk coordinates)
@@ -104,6 +114,15 @@ public final class EmptySlimeWorld implements SlimeWorld {
     return true;
   }
 
+  /**
+   * @param chunkKey Packed coordinates of the chunk
+   * @return Whether or not the requested chunk is all air blocks
+   */
+  @Override
+  public boolean isChunkEmpty(long chunkKey) {
+    return true;
+  }
+
   /**
    * @return A list of all chunks stored in this world
    */
@@ -122,6 +141,15 @@ public final class EmptySlimeWorld implements SlimeWorld {
     return null;
   }
 
+  /**
+   * @param chunkKey Packed coordinates of the chunk
+   * @return The chunk at the provided chunk coordinates
+   */
+  @Override
+  public @Nullable ChunkData getChunk(long chunkKey) {
+    return null;
+  }
+
   /**
    * @param x X-coordinate of a block
    * @param z Z-coordinate of a block
@@ -132,6 +160,14 @@ public final class EmptySlimeWorld implements SlimeWorld {
     return null;
   }
 
+  /**
+   * @return A new cursor for reading blocks in this world, starting at (0, 0, 0)
+   */
+  @Override
+  public @NotNull BlockCursor newCursor() {
+    return new BlockCursor(this);
+  }
+
   /**
    * Get information about the state of the block at the specified coordinates. The scope and limitations of the coordinates may vary from
    * implementation to implementation (e.g. {@link SlimeChunkSection} only allows values from 0 to 15).
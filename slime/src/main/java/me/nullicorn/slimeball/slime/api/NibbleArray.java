@@ -1,34 +1,153 @@
 package me.nullicorn.slimeball.slime.api;
 
+import java.util.Arrays;
+
 /**
  * Represents an array of nibbles; used for storing various information in chunks
+ * <p>
+ * Arrays where every nibble has the same value (e.g. light levels that are all 0 or all 15) can be represented by a shared {@link #uniform(byte)
+ * uniform} instance instead, which doesn't store any bytes. Uniform arrays cannot be {@link #set(int, byte) modified}; {@link #copy() copy} them
+ * first
  *
  * @author Nullicorn
  */
 public class NibbleArray {
 
+  /**
+   * A shared uniform array for each possible nibble value
+   */
+  private static final NibbleArray[] UNIFORM_ARRAYS = new NibbleArray[16];
+
+  static {
+    for (byte value = 0; value < UNIFORM_ARRAYS.length; value++) {
+      UNIFORM_ARRAYS[value] = new NibbleArray(value);
+    }
+  }
+
+  /**
+   * The array's packed nibbles, or null if the array is uniform
+   */
   private final byte[] bytes;
 
+  /**
+   * The value of every nibble in the array, if it is uniform
+   */
+  private final byte uniformValue;
+
   public NibbleArray(byte[] bytes) {
     if (bytes.length != 2048) {
       throw new IllegalArgumentException("NibbleArray must be 2048 bytes long");
     }
     this.bytes = bytes;
+    this.uniformValue = 0;
+  }
+
+  private NibbleArray(byte uniformValue) {
+    this.bytes = null;
+    this.uniformValue = uniformValue;
+  }
+
+  /**
+   * Create a nibble array from packed nibbles, using a shared {@link #uniform(byte) uniform} array instead if every nibble has the same value
+   *
+   * @param bytes The array's 2048 packed nibbles
+   */
+  public static NibbleArray of(byte[] bytes) {
+    if (bytes.length != 2048) {
+      throw new IllegalArgumentException("NibbleArray must be 2048 bytes long");
+    }
+
+    byte first = bytes[0];
+    if ((first & 0x0F) != ((first >> 4) & 0x0F)) {
+      return new NibbleArray(bytes);
+    }
+    for (int i = 1; i < bytes.length; i++) {
+      if (bytes[i] != first) {
+        return new NibbleArray(bytes);
+      }
+    }
+    return uniform(first);
+  }
+
+  /**
+   * @return A shared array where every nibble is the provided value (only the lowest 4 bits are used). The array cannot be modified
+   */
+  public static NibbleArray uniform(byte value) {
+    return UNIFORM_ARRAYS[value & 0x0F];
+  }
+
+  /**
+   * @return Whether or not every nibble in this array is known to have the same value. Uniform arrays are shared, and cannot be modified
+   */
+  public boolean isUniform() {
+    return bytes == null;
   }
 
   /**
    * @return The value of the nibble (0 to 15) at the provided index
    */
   public byte get(final int index) {
+    if (bytes == null) {
+      return uniformValue;
+    }
     return index % 2 == 0
         ? (byte) (bytes[index / 2] & 0x0F) // Even index
         : (byte) ((bytes[index / 2] >> 4) & 0x0F); // Odd index
   }
 
   /**
-   * @return This nibble array's underlying byte array
+   * Set the value of the nibble at the provided index. Only the lowest 4 bits of the value are used
+   *
+   * @throws UnsupportedOperationException If this array is {@link #isUniform() uniform}
+   */
+  public void set(final int index, final byte value) {
+    if (bytes == null) {
+      throw new UnsupportedOperationException("Uniform nibble arrays are shared and cannot be modified");
+    }
+    int byteIndex = index / 2;
+    bytes[byteIndex] = index % 2 == 0
+        ? (byte) ((bytes[byteIndex] & 0xF0) | (value & 0x0F)) // Even index
+        : (byte) ((bytes[byteIndex] & 0x0F) | ((value & 0x0F) << 4)); // Odd index
+  }
+
+  /**
+   * @return A new nibble array with the same values as this one. The copy is never uniform, so it can always be modified
+   */
+  public NibbleArray copy() {
+    return new NibbleArray(bytes != null ? bytes.clone() : getAllBytes());
+  }
+
+  /**
+   * Copy every nibble in this array into a byte array, one nibble per byte
+   *
+   * @param destination Array to copy the 4096 nibbles into
+   * @param offset      Index in the destination array to start copying at
+   */
+  public void copyTo(byte[] destination, int offset) {
+    if (offset < 0 || offset + 4096 > destination.length) {
+      throw new IndexOutOfBoundsException("Nibble array does not fit in destination at offset " + offset);
+    }
+    if (bytes == null) {
+      Arrays.fill(destination, offset, offset + 4096, uniformValue);
+      return;
+    }
+    for (int i = 0; i < bytes.length; i++) {
+      byte b = bytes[i];
+      destination[offset++] = (byte) (b & 0x0F);
+      destination[offset++] = (byte) ((b >> 4) & 0x0F);
+    }
+  }
+
+  /**
+   * @return This nibble array's underlying byte array. If the array is {@link #isUniform() uniform}, a new array of its packed nibbles is returned
+   *     instead
    */
   public byte[] getAllBytes() {
+    if (bytes == null) {
+      byte[] packed = new byte[2048];
+      Arrays.fill(packed, (byte) (uniformValue | (uniformValue << 4)));
+      return packed;
+    }
     return bytes;
   }
 }
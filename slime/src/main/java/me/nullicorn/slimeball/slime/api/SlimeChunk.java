@@ -1,6 +1,7 @@
 package me.nullicorn.slimeball.slime.api;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * @author Nullicorn
@@ -23,4 +24,63 @@ public interface SlimeChunk extends BlockContainer {
    * @return Numeric ID of the biome at the provided coordinates
    */
   byte getBiomeAt(int x, int z);
+
+  /**
+   * Find the highest non-air block in a column. Implementations may remember each column's height to find it faster, but the result is always the same
+   * as checking each block from the top down
+   *
+   * @param x X-coordinate (0 to 15) of the column
+   * @param z Z-coordinate (0 to 15) of the column
+   * @return The Y-coordinate (0 to 255) of the highest non-air block in the column, or -1 if the column is all air
+   */
+  int getHighestBlockYAt(int x, int z);
+
+  /**
+   * Get the {@link #getHighestBlockYAt(int, int) highest block} in every column of the chunk at once
+   *
+   * @param destination Array to copy the 256 heights into, indexed by {@code (z * 16) + x}
+   * @throws IndexOutOfBoundsException If the destination is shorter than 256 ints
+   */
+  void copySurface(@NotNull int[] destination);
+
+  /**
+   * @return Whether or not every section in this chunk column is missing
+   */
+  boolean isEmpty();
+
+  /**
+   * @param sectionY Index of the section in this column (0 being the bottom section and 15 being the top)
+   * @return Whether or not the section is stored in this chunk column. Sections that are not stored are all air
+   */
+  boolean hasSection(int sectionY);
+
+  /**
+   * @param sectionY Index of the section in this column (0 being the bottom section and 15 being the top)
+   * @return The section at that index, or null if the section is not stored (all air)
+   */
+  @Nullable SlimeChunkSection getSection(int sectionY);
+
+  /**
+   * Copy the legacy block ID of every block in this column into an array, in YZX order. Missing sections are copied as air
+   *
+   * @param destination Array to copy the 65536 block IDs into
+   * @throws IndexOutOfBoundsException If the destination is shorter than 65536 bytes
+   */
+  void copyLegacyBlockIds(@NotNull byte[] destination);
+
+  /**
+   * Copy the legacy block state (0 to 15) of every block in this column into an array, in YZX order. Missing sections are copied as 0
+   *
+   * @param destination Array to copy the 65536 block states into
+   * @throws IndexOutOfBoundsException If the destination is shorter than 65536 bytes
+   */
+  void copyLegacyBlockStates(@NotNull byte[] destination);
+
+  /**
+   * Call the visitor for each block in this column that is not air. Sections are visited from bottom to top, and the blocks in each section are
+   * visited in YZX order
+   *
+   * @param visitor Callback to pass each block's coordinates (y from 0 to 255) and state to
+   */
+  void forEachNonAir(@NotNull BlockVisitor visitor);
 }
@@ -19,4 +19,35 @@ public interface SlimeChunkSection extends BlockContainer {
    */
   @NotNull
   ChunkSectionCoordinates getCoordinates();
+
+  /**
+   * @return Whether or not every block in this section is air
+   */
+  boolean isEmpty();
+
+  /**
+   * Copy the legacy block ID of every block in this section into an array, in YZX order
+   *
+   * @param destination Array to copy the 4096 block IDs into
+   * @param offset      Index in the destination array to start copying at
+   * @throws IndexOutOfBoundsException If the destination does not have room for 4096 bytes after the offset
+   */
+  void copyLegacyBlockIds(@NotNull byte[] destination, int offset);
+
+  /**
+   * Copy the legacy block state (0 to 15) of every block in this section into an array, in YZX order. Each state takes up one byte in the
+   * destination
+   *
+   * @param destination Array to copy the 4096 block states into
+   * @param offset      Index in the destination array to start copying at
+   * @throws IndexOutOfBoundsException If the destination does not have room for 4096 bytes after the offset
+   */
+  void copyLegacyBlockStates(@NotNull byte[] destination, int offset);
+
+  /**
+   * Call the visitor for each block in this section that is not air, in YZX order (x changes fastest)
+   *
+   * @param visitor Callback to pass each block's coordinates (0 to 15) and state to
+   */
+  void forEachNonAir(@NotNull BlockVisitor visitor);
 }
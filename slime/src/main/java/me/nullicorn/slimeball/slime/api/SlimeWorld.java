@@ -51,6 +51,14 @@ public interface SlimeWorld extends BlockContainer {
    */
   @NotNull NBTCompound getExtraData();
 
+  /**
+   * @param x X-coordinate of a block
+   * @param z Z-coordinate of a block
+   * @return The Y-coordinate of the highest non-air block in the column, or -1 if there is none
+   * @see SlimeChunk#getHighestBlockYAt(int, int)
+   */
+  int getHighestBlockYAt(int x, int z);
+
   /**
    * @param x X-coordinate of the chunk (in chunk coordinates)
    * @param z Z-coordinate of the chunk (in chunk coordinates)
@@ -58,6 +66,12 @@ public interface SlimeWorld extends BlockContainer {
    */
   boolean isChunkEmpty(int x, int z);
 
+  /**
+   * @param chunkKey Packed coordinates of the chunk (see {@link CoordinateKeys#chunkKey(int, int)})
+   * @return Whether or not the requested chunk is all air blocks
+   */
+  boolean isChunkEmpty(long chunkKey);
+
   /**
    * @return A list of all chunks stored in this world
    */
@@ -70,10 +84,21 @@ public interface SlimeWorld extends BlockContainer {
    */
   @Nullable SlimeChunk getChunk(int x, int z);
 
+  /**
+   * @param chunkKey Packed coordinates of the chunk (see {@link CoordinateKeys#chunkKey(int, int)})
+   * @return The chunk at the provided chunk coordinates
+   */
+  @Nullable SlimeChunk getChunk(long chunkKey);
+
   /**
    * @param x X-coordinate of a block
    * @param z Z-coordinate of a block
    * @return The chunk at the provided block coordinates, or null if the chunk is empty (all air blocks)
    */
   @Nullable SlimeChunk getChunkAtBlock(int x, int z);
+
+  /**
+   * @return A new cursor for reading blocks in this world, starting at (0, 0, 0)
+   */
+  @NotNull BlockCursor newCursor();
 }
@@ -0,0 +1,41 @@
+package me.nullicorn.slimeball.slime.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Emitted when a chunk is decoded from uncompressed slime data
+ *
+ * @author Nullicorn
+ */
+@Name("me.nullicorn.slimeball.SlimeChunkRead")
+@Label("Slime Chunk Read")
+@Category("SlimeBall")
+@Description("A chunk was decoded from uncompressed slime data")
+class SlimeChunkReadEvent extends Event {
+
+  @Label("Chunk X")
+  int chunkX;
+
+  @Label("Chunk Z")
+  int chunkZ;
+
+  @Label("Section Count")
+  @Description("Number of sections stored in the chunk")
+  int sectionCount;
+
+  /**
+   * @return A new event that has begun, or null if the event is disabled
+   */
+  static SlimeChunkReadEvent beginIfEnabled() {
+    SlimeChunkReadEvent event = new SlimeChunkReadEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    event.begin();
+    return event;
+  }
+}
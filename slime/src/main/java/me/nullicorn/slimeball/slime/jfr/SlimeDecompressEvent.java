@@ -0,0 +1,44 @@
+package me.nullicorn.slimeball.slime.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Emitted when a compressed section of a slime file is decompressed
+ *
+ * @author Nullicorn
+ */
+@Name("me.nullicorn.slimeball.SlimeDecompress")
+@Label("Slime Decompress")
+@Category("SlimeBall")
+@Description("A compressed section of a slime file was decompressed")
+class SlimeDecompressEvent extends Event {
+
+  @Label("Blob")
+  @Description("The part of the file that was decompressed, if known")
+  String blob;
+
+  @Label("Compressed Size")
+  @DataAmount
+  long compressedSize;
+
+  @Label("Uncompressed Size")
+  @DataAmount
+  long uncompressedSize;
+
+  /**
+   * @return A new event that has begun, or null if the event is disabled
+   */
+  static SlimeDecompressEvent beginIfEnabled() {
+    SlimeDecompressEvent event = new SlimeDecompressEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    event.begin();
+    return event;
+  }
+}
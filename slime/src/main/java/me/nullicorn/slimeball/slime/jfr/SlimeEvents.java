@@ -0,0 +1,110 @@
+package me.nullicorn.slimeball.slime.jfr;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Emits JDK Flight Recorder events for slime reading. Flight Recorder is only available on Java 8u262 and later, so the event classes are never
+ * loaded on older JVMs; every method here does nothing on them instead
+ * <p>
+ * Events are begun with a {@code begin} method and committed with the matching {@code end} method. The begun event is passed around as an {@link
+ * Object} so that callers never refer to the event classes themselves. It is null whenever the event is disabled, which makes events almost free
+ * when nothing is recording
+ *
+ * @author Nullicorn
+ */
+public final class SlimeEvents {
+
+  private static final boolean AVAILABLE = isFlightRecorderPresent();
+
+  /**
+   * @return Whether or not the JVM supports Flight Recorder events
+   */
+  public static boolean isAvailable() {
+    return AVAILABLE;
+  }
+
+  /**
+   * @return A begun slime file read event, or null if it is disabled
+   */
+  public static @Nullable Object beginRead() {
+    return AVAILABLE ? SlimeReadEvent.beginIfEnabled() : null;
+  }
+
+  /**
+   * Commit an event returned by {@link #beginRead()}
+   */
+  public static void endRead(@Nullable Object event, int version, int width, int depth, int chunkCount, String chunkLoadMode) {
+    if (event != null) {
+      SlimeReadEvent read = (SlimeReadEvent) event;
+      read.end();
+      if (read.shouldCommit()) {
+        read.version = version;
+        read.width = width;
+        read.depth = depth;
+        read.chunkCount = chunkCount;
+        read.chunkLoadMode = chunkLoadMode;
+        read.commit();
+      }
+    }
+  }
+
+  /**
+   * @return A begun decompression event, or null if it is disabled
+   */
+  public static @Nullable Object beginDecompress() {
+    return AVAILABLE ? SlimeDecompressEvent.beginIfEnabled() : null;
+  }
+
+  /**
+   * Commit an event returned by {@link #beginDecompress()}
+   *
+   * @param blob The part of the file that was decompressed, or null if it is not known
+   */
+  public static void endDecompress(@Nullable Object event, @Nullable String blob, long compressedSize, long uncompressedSize) {
+    if (event != null) {
+      SlimeDecompressEvent decompress = (SlimeDecompressEvent) event;
+      decompress.end();
+      if (decompress.shouldCommit()) {
+        decompress.blob = blob;
+        decompress.compressedSize = compressedSize;
+        decompress.uncompressedSize = uncompressedSize;
+        decompress.commit();
+      }
+    }
+  }
+
+  /**
+   * @return A begun chunk read event, or null if it is disabled
+   */
+  public static @Nullable Object beginChunkRead() {
+    return AVAILABLE ? SlimeChunkReadEvent.beginIfEnabled() : null;
+  }
+
+  /**
+   * Commit an event returned by {@link #beginChunkRead()}
+   */
+  public static void endChunkRead(@Nullable Object event, int chunkX, int chunkZ, int sectionCount) {
+    if (event != null) {
+      SlimeChunkReadEvent chunkRead = (SlimeChunkReadEvent) event;
+      chunkRead.end();
+      if (chunkRead.shouldCommit()) {
+        chunkRead.chunkX = chunkX;
+        chunkRead.chunkZ = chunkZ;
+        chunkRead.sectionCount = sectionCount;
+        chunkRead.commit();
+      }
+    }
+  }
+
+  private static boolean isFlightRecorderPresent() {
+    try {
+      Class.forName("jdk.jfr.Event", false, SlimeEvents.class.getClassLoader());
+      return true;
+    } catch (ClassNotFoundException | LinkageError e) {
+      return false;
+    }
+  }
+
+  private SlimeEvents() {
+  }
+}
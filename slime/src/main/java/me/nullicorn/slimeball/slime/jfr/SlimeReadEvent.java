@@ -0,0 +1,49 @@
+package me.nullicorn.slimeball.slime.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Emitted when an entire slime file is read
+ *
+ * @author Nullicorn
+ */
+@Name("me.nullicorn.slimeball.SlimeRead")
+@Label("Slime File Read")
+@Category("SlimeBall")
+@Description("An entire slime file was read")
+class SlimeReadEvent extends Event {
+
+  @Label("Version")
+  int version;
+
+  @Label("Width")
+  @Description("Width of the world, in chunks")
+  int width;
+
+  @Label("Depth")
+  @Description("Depth of the world, in chunks")
+  int depth;
+
+  @Label("Chunk Count")
+  @Description("Number of chunks stored in the file")
+  int chunkCount;
+
+  @Label("Chunk Load Mode")
+  String chunkLoadMode;
+
+  /**
+   * @return A new event that has begun, or null if the event is disabled
+   */
+  static SlimeReadEvent beginIfEnabled() {
+    SlimeReadEvent event = new SlimeReadEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    event.begin();
+    return event;
+  }
+}
@@ -0,0 +1,252 @@
+package me.nullicorn.slimeball.slime.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.LongFunction;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A hash map with primitive {@code long} keys, using open addressing (linear probing). Unlike a {@code HashMap<Long, V>}, looking up a key doesn't
+ * box it or allocate anything. Null values are not allowed
+ * <p>
+ * This class is not thread-safe
+ *
+ * @param <V> The type of value stored in the map
+ * @author Nullicorn
+ */
+public class LongObjectHashMap<V> {
+
+  /**
+   * The maximum fraction of slots that may be used before the table grows
+   */
+  private static final float LOAD_FACTOR = 0.6f;
+
+  private long[]   keys;
+  private Object[] values;
+  private int      size;
+  private int      mask;
+  private int      resizeThreshold;
+
+  public LongObjectHashMap() {
+    this(16);
+  }
+
+  /**
+   * @param expectedSize The number of entries the map should be able to hold without growing
+   */
+  public LongObjectHashMap(int expectedSize) {
+    if (expectedSize < 0) {
+      throw new IllegalArgumentException("Expected size cannot be negative: " + expectedSize);
+    }
+    allocate(tableSizeFor(expectedSize));
+  }
+
+  /**
+   * @return The value mapped to the key, or null if the key isn't in the map
+   */
+  @Nullable
+  @SuppressWarnings("unchecked")
+  public V get(long key) {
+    int slot = slotOf(key);
+    while (values[slot] != null) {
+      if (keys[slot] == key) {
+        return (V) values[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    return null;
+  }
+
+  /**
+   * @return Whether or not the key is in the map
+   */
+  public boolean containsKey(long key) {
+    return get(key) != null;
+  }
+
+  /**
+   * Map a key to a value, replacing any value that the key was already mapped to
+   *
+   * @return The value that the key was mapped to before, or null if it wasn't in the map
+   */
+  @Nullable
+  @SuppressWarnings("unchecked")
+  public V put(long key, @NotNull V value) {
+    if (value == null) {
+      throw new NullPointerException("LongObjectHashMap cannot store null values");
+    }
+
+    int slot = slotOf(key);
+    while (values[slot] != null) {
+      if (keys[slot] == key) {
+        V previous = (V) values[slot];
+        values[slot] = value;
+        return previous;
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    keys[slot] = key;
+    values[slot] = value;
+    if (++size > resizeThreshold) {
+      resize(values.length * 2);
+    }
+    return null;
+  }
+
+  /**
+   * @return The value that the key is mapped to. If the key isn't in the map yet, it is mapped to a new value from the provided function first
+   */
+  @NotNull
+  public V computeIfAbsent(long key, @NotNull LongFunction<? extends V> mappingFunction) {
+    V value = get(key);
+    if (value == null) {
+      value = mappingFunction.apply(key);
+      put(key, value);
+    }
+    return value;
+  }
+
+  /**
+   * Remove a key from the map
+   *
+   * @return The value that the key was mapped to, or null if it wasn't in the map
+   */
+  @Nullable
+  @SuppressWarnings("unchecked")
+  public V remove(long key) {
+    int slot = slotOf(key);
+    while (values[slot] != null) {
+      if (keys[slot] == key) {
+        V previous = (V) values[slot];
+        values[slot] = null;
+        size--;
+        closeGap(slot);
+        return previous;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return null;
+  }
+
+  /**
+   * @return The number of keys in the map
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return Whether or not the map has no keys
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Remove every key from the map
+   */
+  public void clear() {
+    Arrays.fill(values, null);
+    size = 0;
+  }
+
+  /**
+   * Call the consumer for every key in the map and the value it is mapped to, in no particular order
+   */
+  @SuppressWarnings("unchecked")
+  public void forEach(@NotNull EntryConsumer<? super V> consumer) {
+    for (int slot = 0; slot < values.length; slot++) {
+      if (values[slot] != null) {
+        consumer.accept(keys[slot], (V) values[slot]);
+      }
+    }
+  }
+
+  /**
+   * @return A new collection of every value in the map, in no particular order
+   */
+  @NotNull
+  @SuppressWarnings("unchecked")
+  public Collection<V> values() {
+    List<V> allValues = new ArrayList<>(size);
+    for (Object value : values) {
+      if (value != null) {
+        allValues.add((V) value);
+      }
+    }
+    return allValues;
+  }
+
+  /**
+   * After the entry at a slot is removed, move any later entries in the same probe sequence back so that they can still be found
+   */
+  private void closeGap(int emptySlot) {
+    int slot = (emptySlot + 1) & mask;
+    while (values[slot] != null) {
+      int idealSlot = slotOf(keys[slot]);
+      // Move the entry if the empty slot is between its ideal slot and its current slot (cyclically)
+      if (((slot - idealSlot) & mask) >= ((slot - emptySlot) & mask)) {
+        keys[emptySlot] = keys[slot];
+        values[emptySlot] = values[slot];
+        values[slot] = null;
+        emptySlot = slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  private int slotOf(long key) {
+    long hash = key * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32)) & mask;
+  }
+
+  private void resize(int tableSize) {
+    long[] oldKeys = keys;
+    Object[] oldValues = values;
+    allocate(tableSize);
+
+    for (int i = 0; i < oldValues.length; i++) {
+      Object value = oldValues[i];
+      if (value == null) {
+        continue;
+      }
+      int slot = slotOf(oldKeys[i]);
+      while (values[slot] != null) {
+        slot = (slot + 1) & mask;
+      }
+      keys[slot] = oldKeys[i];
+      values[slot] = value;
+    }
+  }
+
+  private void allocate(int tableSize) {
+    keys = new long[tableSize];
+    values = new Object[tableSize];
+    mask = tableSize - 1;
+    resizeThreshold = (int) (tableSize * LOAD_FACTOR);
+  }
+
+  /**
+   * @return The smallest power of 2 table that can hold the expected number of entries without growing
+   */
+  private static int tableSizeFor(int expectedSize) {
+    int tableSize = 2;
+    while (tableSize * LOAD_FACTOR < expectedSize + 1) {
+      tableSize *= 2;
+    }
+    return tableSize;
+  }
+
+  /**
+   * Accepts each key and value in a map
+   */
+  @FunctionalInterface
+  public interface EntryConsumer<V> {
+
+    void accept(long key, V value);
+  }
+}
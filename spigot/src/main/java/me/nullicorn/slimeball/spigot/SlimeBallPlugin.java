@@ -1,8 +1,19 @@
 package me.nullicorn.slimeball.spigot;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.Getter;
+import me.nullicorn.slimeball.slime.SlimeDictionaries;
+import me.nullicorn.slimeball.slime.SlimeDictionary;
+import me.nullicorn.slimeball.spigot.metrics.SlimeMetricsCommand;
+import me.nullicorn.slimeball.spigot.util.LegacyBiomeMappings;
+import me.nullicorn.slimeball.spigot.util.LegacyBlockMappings;
+import me.nullicorn.slimeball.spigot.world.SlimeWorldCache;
 import me.nullicorn.slimeball.spigot.world.SlimeWorldLoader;
 import me.nullicorn.slimeball.spigot.world.WorldListener;
 import org.apache.logging.log4j.LogManager;
@@ -26,16 +37,58 @@ public final class SlimeBallPlugin extends JavaPlugin {
   @Getter
   private final Map<String, SlimeWorldLoader> allWorldLoaders;
 
+  /**
+   * Threads used to read and decode slime files in the background, so that multiple worlds can load at once. Created each time the plugin is
+   * enabled, and shut down when it is disabled
+   */
+  @Getter
+  private volatile ExecutorService loaderExecutor;
+
+  /**
+   * Dictionaries that slime files may have been compressed with, loaded from the plugin's "dictionaries" folder
+   */
+  @Getter
+  private final SlimeDictionaries dictionaries;
+
+  /**
+   * Decoded slime files, shared between every world loaded from the same file
+   */
+  @Getter
+  private final SlimeWorldCache worldCache;
+
   public SlimeBallPlugin() {
     allWorldLoaders = new HashMap<>();
+    dictionaries = new SlimeDictionaries();
+    worldCache = new SlimeWorldCache(dictionaries, Runtime.getRuntime().maxMemory() / 4, Runtime.getRuntime().maxMemory() / 4);
   }
 
   /**
-   * Disable autosave for worlds
+   * Start the loader threads, load the config, build block & biome mappings, load dictionaries and register world listeners & commands
    */
   @Override
   public void onEnable() {
+    AtomicInteger threadCount = new AtomicInteger();
+    loaderExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), task -> {
+      Thread thread = new Thread(task, "SlimeBall Loader #" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    saveDefaultConfig();
+    long worldCacheSizeMb = getConfig().getLong("world-cache-size-mb", -1);
+    if (worldCacheSizeMb >= 0) {
+      worldCache.setMaxEstimatedSize(worldCacheSizeMb * 1024 * 1024);
+    }
+    long worldCacheDirectSizeMb = getConfig().getLong("world-cache-direct-size-mb", -1);
+    if (worldCacheDirectSizeMb >= 0) {
+      worldCache.setMaxDirectSize(worldCacheDirectSizeMb * 1024 * 1024);
+    }
+
+    LegacyBlockMappings.init();
+    LegacyBiomeMappings.init();
+    loadDictionaries(new File(getDataFolder(), "dictionaries"));
     getServer().getPluginManager().registerEvents(new WorldListener(this), this);
+    getCommand("slimemetrics").setExecutor(new SlimeMetricsCommand(this));
   }
 
   /**
@@ -44,18 +97,48 @@ public final class SlimeBallPlugin extends JavaPlugin {
   @Override
   public void onDisable() {
     // TODO: 8/19/20 Block region files from saving
+    loaderExecutor.shutdownNow();
+    worldCache.clear();
+    for (SlimeWorldLoader worldLoader : allWorldLoaders.values()) {
+      worldLoader.getMetrics().unregister();
+    }
   }
 
   @Override
   public ChunkGenerator getDefaultWorldGenerator(@NotNull String worldName, String id) {
     getLogger().info("Using slime world generator for '" + worldName + "'");
 
-    SlimeWorldLoader worldLoader = new SlimeWorldLoader(this);
+    SlimeWorldLoader worldLoader = new SlimeWorldLoader(this, worldName);
     allWorldLoaders.put(worldName, worldLoader);
+    worldLoader.getMetrics().register();
+
+    // Start reading the slime file now, instead of when the first chunk is generated
+    File worldFolder = new File(getServer().getWorldContainer(), worldName);
+    worldLoader.preload(new File(worldFolder, "world.slime"));
 
     return worldLoader;
   }
 
+  /**
+   * Register every dictionary (*.dict) file in a folder
+   */
+  private void loadDictionaries(File folder) {
+    File[] files = folder.listFiles((dir, name) -> name.endsWith(".dict"));
+    if (files == null) {
+      return;
+    }
+
+    for (File file : files) {
+      try {
+        SlimeDictionary dictionary = SlimeDictionary.load(file);
+        dictionaries.register(dictionary);
+        logger.info("Loaded slime dictionary {} from {}", dictionary.getId(), file.getName());
+      } catch (IOException e) {
+        logger.error("Unable to load slime dictionary from {}", file.getName(), e);
+      }
+    }
+  }
+
   /**
    * @return Whether or not the provided world was loaded from a slime file
    */
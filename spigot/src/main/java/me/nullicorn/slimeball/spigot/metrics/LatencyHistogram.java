@@ -0,0 +1,82 @@
+package me.nullicorn.slimeball.spigot.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of durations. Durations are grouped into buckets by powers of 2 microseconds, so percentiles are rounded up to the next
+ * power of 2
+ *
+ * @author Nullicorn
+ */
+public class LatencyHistogram {
+
+  /**
+   * Bucket {@code i} counts durations of less than {@code 2^i} microseconds (and at least {@code 2^(i-1)}). The last bucket also counts anything
+   * longer
+   */
+  private static final int BUCKET_COUNT = 32;
+
+  private final AtomicLongArray buckets    = new AtomicLongArray(BUCKET_COUNT);
+  private final LongAdder       count      = new LongAdder();
+  private final LongAdder       totalNanos = new LongAdder();
+  private final AtomicLong      maxNanos   = new AtomicLong();
+
+  /**
+   * @param nanos A duration to add to the histogram
+   */
+  public void record(long nanos) {
+    long micros = Math.max(0, nanos / 1000);
+    int bucket = Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(micros));
+    buckets.incrementAndGet(bucket);
+    count.increment();
+    totalNanos.add(nanos);
+    maxNanos.accumulateAndGet(nanos, Math::max);
+  }
+
+  /**
+   * @return The number of durations recorded
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * @return The average duration, in microseconds
+   */
+  public double getMeanMicros() {
+    long count = getCount();
+    return count == 0
+        ? 0
+        : totalNanos.sum() / 1000d / count;
+  }
+
+  /**
+   * @return The longest duration recorded, in microseconds
+   */
+  public double getMaxMicros() {
+    return maxNanos.get() / 1000d;
+  }
+
+  /**
+   * @param percentile Percentage of durations (0 to 100) that should be at or below the returned value
+   * @return The upper bound of the bucket containing the percentile, in microseconds, or 0 if nothing has been recorded
+   */
+  public long getPercentileMicros(double percentile) {
+    long count = getCount();
+    if (count == 0) {
+      return 0;
+    }
+
+    long threshold = (long) Math.ceil(count * (percentile / 100));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += buckets.get(i);
+      if (seen >= threshold) {
+        return 1L << i;
+      }
+    }
+    return 1L << (BUCKET_COUNT - 1);
+  }
+}
@@ -0,0 +1,68 @@
+package me.nullicorn.slimeball.spigot.metrics;
+
+import me.nullicorn.slimeball.slime.jfr.SlimeEvents;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Emits JDK Flight Recorder events for loading slime worlds into the server. Works the same way as {@link SlimeEvents}, and does nothing on JVMs
+ * without Flight Recorder
+ *
+ * @author Nullicorn
+ */
+public final class PluginEvents {
+
+  /**
+   * @return A begun chunk generation event, or null if it is disabled
+   */
+  public static @Nullable Object beginChunkGenerate() {
+    return SlimeEvents.isAvailable() ? SlimeChunkGenerateEvent.beginIfEnabled() : null;
+  }
+
+  /**
+   * Commit an event returned by {@link #beginChunkGenerate()}
+   *
+   * @param fromSlime Whether the slime file had any blocks for the chunk
+   */
+  public static void endChunkGenerate(@Nullable Object event, String world, int chunkX, int chunkZ, boolean fromSlime) {
+    if (event != null) {
+      SlimeChunkGenerateEvent generate = (SlimeChunkGenerateEvent) event;
+      generate.end();
+      if (generate.shouldCommit()) {
+        generate.world = world;
+        generate.chunkX = chunkX;
+        generate.chunkZ = chunkZ;
+        generate.fromSlime = fromSlime;
+        generate.commit();
+      }
+    }
+  }
+
+  /**
+   * @return A begun tile entity loading event, or null if it is disabled
+   */
+  public static @Nullable Object beginTileEntityLoad() {
+    return SlimeEvents.isAvailable() ? SlimeTileEntityLoadEvent.beginIfEnabled() : null;
+  }
+
+  /**
+   * Commit an event returned by {@link #beginTileEntityLoad()}
+   *
+   * @param count The number of tile entities that were loaded
+   */
+  public static void endTileEntityLoad(@Nullable Object event, String world, int chunkX, int chunkZ, int count) {
+    if (event != null) {
+      SlimeTileEntityLoadEvent load = (SlimeTileEntityLoadEvent) event;
+      load.end();
+      if (load.shouldCommit()) {
+        load.world = world;
+        load.chunkX = chunkX;
+        load.chunkZ = chunkZ;
+        load.count = count;
+        load.commit();
+      }
+    }
+  }
+
+  private PluginEvents() {
+  }
+}
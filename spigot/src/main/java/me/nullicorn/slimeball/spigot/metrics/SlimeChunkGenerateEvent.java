@@ -0,0 +1,44 @@
+package me.nullicorn.slimeball.spigot.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Emitted when the server generates a chunk in a slime world
+ *
+ * @author Nullicorn
+ */
+@Name("me.nullicorn.slimeball.ChunkGenerate")
+@Label("Slime Chunk Generate")
+@Category("SlimeBall")
+@Description("A chunk in a slime world was generated from the world's slime file")
+class SlimeChunkGenerateEvent extends Event {
+
+  @Label("World")
+  String world;
+
+  @Label("Chunk X")
+  int chunkX;
+
+  @Label("Chunk Z")
+  int chunkZ;
+
+  @Label("From Slime")
+  @Description("Whether the slime file had any blocks for the chunk, or it was left empty")
+  boolean fromSlime;
+
+  /**
+   * @return A new event that has begun, or null if the event is disabled
+   */
+  static SlimeChunkGenerateEvent beginIfEnabled() {
+    SlimeChunkGenerateEvent event = new SlimeChunkGenerateEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    event.begin();
+    return event;
+  }
+}
@@ -0,0 +1,85 @@
+package me.nullicorn.slimeball.spigot.metrics;
+
+import java.util.Map;
+import me.nullicorn.slimeball.spigot.SlimeBallPlugin;
+import me.nullicorn.slimeball.spigot.world.SlimeWorldLoader;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Shows the {@link WorldMetrics} of one or all slime worlds. Usage: {@code /slimemetrics [world]}
+ *
+ * @author Nullicorn
+ */
+public class SlimeMetricsCommand implements CommandExecutor {
+
+  private final SlimeBallPlugin plugin;
+
+  public SlimeMetricsCommand(SlimeBallPlugin plugin) {
+    this.plugin = plugin;
+  }
+
+  @Override
+  public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+    if (args.length > 1) {
+      return false;
+    }
+
+    if (args.length == 1) {
+      SlimeWorldLoader loader = plugin.getAllWorldLoaders().get(args[0]);
+      if (loader == null) {
+        sender.sendMessage("'" + args[0] + "' is not a slime world");
+        return true;
+      }
+      sendMetrics(sender, loader.getMetrics());
+      return true;
+    }
+
+    if (plugin.getAllWorldLoaders().isEmpty()) {
+      sender.sendMessage("No slime worlds are loaded");
+    }
+    for (Map.Entry<String, SlimeWorldLoader> entry : plugin.getAllWorldLoaders().entrySet()) {
+      sendMetrics(sender, entry.getValue().getMetrics());
+    }
+    return true;
+  }
+
+  private static void sendMetrics(CommandSender sender, WorldMetrics metrics) {
+    long loadMillis = metrics.getLoadMillis();
+    sender.sendMessage("Slime world '" + metrics.getWorldName() + "': " + (loadMillis >= 0 ? "loaded in " + loadMillis + "ms" : "still loading"));
+    sender.sendMessage(String.format("  File: read %s in %.1fms, chunks decompressed in %.1fms (%s -> %s)",
+        formatBytes(metrics.getFileBytes()),
+        metrics.getFileReadMillis(),
+        metrics.getChunkDecompressMillis(),
+        formatBytes(metrics.getChunkCompressedBytes()),
+        formatBytes(metrics.getChunkUncompressedBytes())));
+    sender.sendMessage(String.format("  NBT: decompressed in %.1fms, parsed in %.1fms",
+        metrics.getNbtDecompressMillis(),
+        metrics.getNbtParseMillis()));
+    sender.sendMessage(String.format("  Chunks: %d decoded in %.1fms, %d generated (mean %.0fus, p50 %dus, p99 %dus, max %.0fus)",
+        metrics.getChunksDecoded(),
+        metrics.getChunkDecodeMillis(),
+        metrics.getGeneratedChunks(),
+        metrics.getChunkGenerationMeanMicros(),
+        metrics.getChunkGenerationP50Micros(),
+        metrics.getChunkGenerationP99Micros(),
+        metrics.getChunkGenerationMaxMicros()));
+    sender.sendMessage(String.format("  Tile entities: %d loaded in %.1fms",
+        metrics.getTileEntitiesLoaded(),
+        metrics.getTileEntityMillis()));
+    if (metrics.getReadAllocatedBytes() >= 0) {
+      sender.sendMessage("  Allocated while reading: " + formatBytes(metrics.getReadAllocatedBytes()));
+    }
+  }
+
+  private static String formatBytes(long bytes) {
+    if (bytes < 1024) {
+      return bytes + " B";
+    } else if (bytes < 1024 * 1024) {
+      return String.format("%.1f KB", bytes / 1024d);
+    }
+    return String.format("%.1f MB", bytes / (1024d * 1024));
+  }
+}
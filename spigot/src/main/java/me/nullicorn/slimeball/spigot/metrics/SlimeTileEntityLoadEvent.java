@@ -0,0 +1,44 @@
+package me.nullicorn.slimeball.spigot.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Emitted when tile entities from a slime file are loaded into a chunk
+ *
+ * @author Nullicorn
+ */
+@Name("me.nullicorn.slimeball.TileEntityLoad")
+@Label("Slime Tile Entity Load")
+@Category("SlimeBall")
+@Description("Tile entities from a slime file were loaded into a chunk")
+class SlimeTileEntityLoadEvent extends Event {
+
+  @Label("World")
+  String world;
+
+  @Label("Chunk X")
+  int chunkX;
+
+  @Label("Chunk Z")
+  int chunkZ;
+
+  @Label("Tile Entity Count")
+  @Description("Number of tile entities that were loaded")
+  int count;
+
+  /**
+   * @return A new event that has begun, or null if the event is disabled
+   */
+  static SlimeTileEntityLoadEvent beginIfEnabled() {
+    SlimeTileEntityLoadEvent event = new SlimeTileEntityLoadEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    event.begin();
+    return event;
+  }
+}
@@ -0,0 +1,226 @@
+package me.nullicorn.slimeball.spigot.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import lombok.Getter;
+import lombok.Setter;
+import me.nullicorn.slimeball.slime.SlimeLoadMetrics;
+import me.nullicorn.slimeball.slime.SlimeLoadMetrics.Blob;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Timings for loading a single slime world and generating its chunks. File timings come from the {@link SlimeLoadMetrics} of the decoded file, so
+ * worlds that share a cached file also share those timings
+ *
+ * @author Nullicorn
+ */
+public class WorldMetrics implements WorldMetricsMXBean {
+
+  private static final Logger logger = LogManager.getLogger(WorldMetrics.class);
+
+  @Getter
+  private final String worldName;
+
+  /**
+   * Timings for reading the world's slime file, or null if the file has not been read yet
+   */
+  @Getter
+  @Setter
+  @Nullable
+  private volatile SlimeLoadMetrics fileMetrics;
+
+  /**
+   * The times (from {@link System#nanoTime()}) when the world started and finished loading
+   */
+  private volatile long loadStartTime;
+  private volatile long loadEndTime;
+
+  /**
+   * Time spent in each call to the world's chunk generator
+   */
+  @Getter
+  private final LatencyHistogram chunkGeneration = new LatencyHistogram();
+
+  private final LongAdder tileEntityNanos = new LongAdder();
+  private final LongAdder tileEntityCount = new LongAdder();
+
+  public WorldMetrics(String worldName) {
+    this.worldName = worldName;
+  }
+
+  /**
+   * Record that the world's slime file started loading
+   */
+  public void recordLoadStart() {
+    loadStartTime = System.nanoTime();
+  }
+
+  /**
+   * Record that the world's slime file finished loading
+   */
+  public void recordLoadEnd() {
+    loadEndTime = System.nanoTime();
+  }
+
+  /**
+   * @param nanos        Time spent loading a chunk's tile entities
+   * @param tileEntities Number of tile entities loaded
+   */
+  public void recordTileEntities(long nanos, int tileEntities) {
+    tileEntityNanos.add(nanos);
+    tileEntityCount.add(tileEntities);
+  }
+
+  @Override
+  public long getLoadMillis() {
+    long start = loadStartTime;
+    long end = loadEndTime;
+    return start == 0 || end == 0
+        ? -1
+        : (end - start) / 1_000_000;
+  }
+
+  @Override
+  public double getFileReadMillis() {
+    SlimeLoadMetrics file = fileMetrics;
+    return file != null ? toMillis(file.getFileReadNanos()) : 0;
+  }
+
+  @Override
+  public long getFileBytes() {
+    SlimeLoadMetrics file = fileMetrics;
+    return file != null ? file.getFileBytes() : 0;
+  }
+
+  @Override
+  public double getChunkDecompressMillis() {
+    SlimeLoadMetrics file = fileMetrics;
+    return file != null ? toMillis(file.getDecompressNanos(Blob.CHUNKS)) : 0;
+  }
+
+  @Override
+  public long getChunkCompressedBytes() {
+    SlimeLoadMetrics file = fileMetrics;
+    return file != null ? file.getCompressedBytes(Blob.CHUNKS) : 0;
+  }
+
+  @Override
+  public long getChunkUncompressedBytes() {
+    SlimeLoadMetrics file = fileMetrics;
+    return file != null ? file.getUncompressedBytes(Blob.CHUNKS) : 0;
+  }
+
+  @Override
+  public double getNbtDecompressMillis() {
+    SlimeLoadMetrics file = fileMetrics;
+    if (file == null) {
+      return 0;
+    }
+    return toMillis(file.getDecompressNanos(Blob.TILE_ENTITIES)
+        + file.getDecompressNanos(Blob.ENTITIES)
+        + file.getDecompressNanos(Blob.EXTRA));
+  }
+
+  @Override
+  public double getNbtParseMillis() {
+    SlimeLoadMetrics file = fileMetrics;
+    return file != null ? toMillis(file.getNbtParseNanos()) : 0;
+  }
+
+  @Override
+  public double getChunkDecodeMillis() {
+    SlimeLoadMetrics file = fileMetrics;
+    return file != null ? toMillis(file.getChunkDecodeNanos()) : 0;
+  }
+
+  @Override
+  public long getChunksDecoded() {
+    SlimeLoadMetrics file = fileMetrics;
+    return file != null ? file.getChunksDecoded() : 0;
+  }
+
+  @Override
+  public long getReadAllocatedBytes() {
+    SlimeLoadMetrics file = fileMetrics;
+    return file != null ? file.getAllocatedBytes() : -1;
+  }
+
+  @Override
+  public long getGeneratedChunks() {
+    return chunkGeneration.getCount();
+  }
+
+  @Override
+  public double getChunkGenerationMeanMicros() {
+    return chunkGeneration.getMeanMicros();
+  }
+
+  @Override
+  public long getChunkGenerationP50Micros() {
+    return chunkGeneration.getPercentileMicros(50);
+  }
+
+  @Override
+  public long getChunkGenerationP99Micros() {
+    return chunkGeneration.getPercentileMicros(99);
+  }
+
+  @Override
+  public double getChunkGenerationMaxMicros() {
+    return chunkGeneration.getMaxMicros();
+  }
+
+  @Override
+  public double getTileEntityMillis() {
+    return toMillis(tileEntityNanos.sum());
+  }
+
+  @Override
+  public long getTileEntitiesLoaded() {
+    return tileEntityCount.sum();
+  }
+
+  /**
+   * Make these metrics available over JMX, replacing the metrics of any previous world with the same name
+   */
+  public void register() {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      ObjectName name = getObjectName();
+      if (server.isRegistered(name)) {
+        server.unregisterMBean(name);
+      }
+      server.registerMBean(this, name);
+    } catch (JMException e) {
+      logger.warn("Unable to register metrics for world '{}'", worldName, e);
+    }
+  }
+
+  /**
+   * Stop making these metrics available over JMX
+   */
+  public void unregister() {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      ObjectName name = getObjectName();
+      if (server.isRegistered(name)) {
+        server.unregisterMBean(name);
+      }
+    } catch (JMException e) {
+      logger.warn("Unable to unregister metrics for world '{}'", worldName, e);
+    }
+  }
+
+  private ObjectName getObjectName() throws JMException {
+    return new ObjectName("me.nullicorn.slimeball:type=World,name=" + ObjectName.quote(worldName));
+  }
+
+  private static double toMillis(long nanos) {
+    return nanos / 1_000_000d;
+  }
+}
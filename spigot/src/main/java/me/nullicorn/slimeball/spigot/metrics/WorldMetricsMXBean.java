@@ -0,0 +1,105 @@
+package me.nullicorn.slimeball.spigot.metrics;
+
+/**
+ * Load and chunk generation timings for a slime world, as exposed over JMX
+ *
+ * @author Nullicorn
+ * @see WorldMetrics
+ */
+public interface WorldMetricsMXBean {
+
+  /**
+   * @return Name of the world
+   */
+  String getWorldName();
+
+  /**
+   * @return Time from when the world's slime file started loading until it was ready to generate chunks, or -1 if it is not ready yet
+   */
+  long getLoadMillis();
+
+  /**
+   * @return Time spent reading the slime file from disk
+   */
+  double getFileReadMillis();
+
+  /**
+   * @return Size of the slime file
+   */
+  long getFileBytes();
+
+  /**
+   * @return Time spent decompressing the file's chunk data
+   */
+  double getChunkDecompressMillis();
+
+  /**
+   * @return Compressed size of the file's chunk data
+   */
+  long getChunkCompressedBytes();
+
+  /**
+   * @return Uncompressed size of the file's chunk data
+   */
+  long getChunkUncompressedBytes();
+
+  /**
+   * @return Time spent decompressing the file's tile entities, entities and extra data
+   */
+  double getNbtDecompressMillis();
+
+  /**
+   * @return Time spent parsing the file's tile entities, entities and extra data once they were decompressed
+   */
+  double getNbtParseMillis();
+
+  /**
+   * @return Time spent decoding chunks from the file
+   */
+  double getChunkDecodeMillis();
+
+  /**
+   * @return Number of chunks decoded from the file
+   */
+  long getChunksDecoded();
+
+  /**
+   * @return Bytes allocated on the heap while the file was read, or -1 if the JVM cannot measure it
+   */
+  long getReadAllocatedBytes();
+
+  /**
+   * @return Number of chunks generated from the slime world
+   */
+  long getGeneratedChunks();
+
+  /**
+   * @return Average time spent generating a chunk
+   */
+  double getChunkGenerationMeanMicros();
+
+  /**
+   * @return Median time spent generating a chunk, rounded up to a power of 2
+   */
+  long getChunkGenerationP50Micros();
+
+  /**
+   * @return 99th percentile of the time spent generating a chunk, rounded up to a power of 2
+   */
+  long getChunkGenerationP99Micros();
+
+  /**
+   * @return Longest time spent generating a chunk
+   */
+  double getChunkGenerationMaxMicros();
+
+  /**
+   * @return Time spent loading tile entities into chunks
+   */
+  double getTileEntityMillis();
+
+  /**
+   * @return Number of tile entities loaded into chunks
+   */
+  long getTileEntitiesLoaded();
+}
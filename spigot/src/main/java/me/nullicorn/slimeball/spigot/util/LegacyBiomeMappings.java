@@ -0,0 +1,109 @@
+package me.nullicorn.slimeball.spigot.util;
+
+import org.bukkit.block.Biome;
+
+/**
+ * Legacy (pre-1.13) numeric biome IDs mapped to their modern Bukkit biomes. The table is built once, when this class is first used
+ *
+ * @author Nullicorn
+ */
+public final class LegacyBiomeMappings {
+
+  /**
+   * Modern biomes indexed by their legacy ID (0 to 255). Unknown biomes are null
+   */
+  private static final Biome[] BY_LEGACY_ID = new Biome[256];
+
+  /**
+   * @param legacyId Legacy numeric biome ID (as stored in slime chunks)
+   * @return The modern biome for the legacy ID, or null if the ID is unknown or has no modern equivalent
+   */
+  public static Biome getBiome(byte legacyId) {
+    return BY_LEGACY_ID[legacyId & 0xFF];
+  }
+
+  /**
+   * Force the table to be built, if it hasn't been already
+   */
+  public static void init() {
+  }
+
+  /**
+   * Map a legacy biome ID to the modern biome with the provided name, if this server version has it
+   */
+  private static void map(int legacyId, String modernName) {
+    try {
+      BY_LEGACY_ID[legacyId] = Biome.valueOf(modernName);
+    } catch (IllegalArgumentException ignored) {
+      // This server version doesn't have the biome, so leave it unmapped
+    }
+  }
+
+  static {
+    map(0, "OCEAN");
+    map(1, "PLAINS");
+    map(2, "DESERT");
+    map(3, "MOUNTAINS");
+    map(4, "FOREST");
+    map(5, "TAIGA");
+    map(6, "SWAMP");
+    map(7, "RIVER");
+    map(8, "NETHER");
+    map(9, "THE_END");
+    map(10, "FROZEN_OCEAN");
+    map(11, "FROZEN_RIVER");
+    map(12, "SNOWY_TUNDRA");
+    map(13, "SNOWY_MOUNTAINS");
+    map(14, "MUSHROOM_FIELDS");
+    map(15, "MUSHROOM_FIELD_SHORE");
+    map(16, "BEACH");
+    map(17, "DESERT_HILLS");
+    map(18, "WOODED_HILLS");
+    map(19, "TAIGA_HILLS");
+    map(20, "MOUNTAIN_EDGE");
+    map(21, "JUNGLE");
+    map(22, "JUNGLE_HILLS");
+    map(23, "JUNGLE_EDGE");
+    map(24, "DEEP_OCEAN");
+    map(25, "STONE_SHORE");
+    map(26, "SNOWY_BEACH");
+    map(27, "BIRCH_FOREST");
+    map(28, "BIRCH_FOREST_HILLS");
+    map(29, "DARK_FOREST");
+    map(30, "SNOWY_TAIGA");
+    map(31, "SNOWY_TAIGA_HILLS");
+    map(32, "GIANT_TREE_TAIGA");
+    map(33, "GIANT_TREE_TAIGA_HILLS");
+    map(34, "WOODED_MOUNTAINS");
+    map(35, "SAVANNA");
+    map(36, "SAVANNA_PLATEAU");
+    map(37, "BADLANDS");
+    map(38, "WOODED_BADLANDS_PLATEAU");
+    map(39, "BADLANDS_PLATEAU");
+    map(127, "THE_VOID");
+    map(129, "SUNFLOWER_PLAINS");
+    map(130, "DESERT_LAKES");
+    map(131, "GRAVELLY_MOUNTAINS");
+    map(132, "FLOWER_FOREST");
+    map(133, "TAIGA_MOUNTAINS");
+    map(134, "SWAMP_HILLS");
+    map(140, "ICE_SPIKES");
+    map(149, "MODIFIED_JUNGLE");
+    map(151, "MODIFIED_JUNGLE_EDGE");
+    map(155, "TALL_BIRCH_FOREST");
+    map(156, "TALL_BIRCH_HILLS");
+    map(157, "DARK_FOREST_HILLS");
+    map(158, "SNOWY_TAIGA_MOUNTAINS");
+    map(160, "GIANT_SPRUCE_TAIGA");
+    map(161, "GIANT_SPRUCE_TAIGA_HILLS");
+    map(162, "MODIFIED_GRAVELLY_MOUNTAINS");
+    map(163, "SHATTERED_SAVANNA");
+    map(164, "SHATTERED_SAVANNA_PLATEAU");
+    map(165, "ERODED_BADLANDS");
+    map(166, "MODIFIED_WOODED_BADLANDS_PLATEAU");
+    map(167, "MODIFIED_BADLANDS_PLATEAU");
+  }
+
+  private LegacyBiomeMappings() {
+  }
+}
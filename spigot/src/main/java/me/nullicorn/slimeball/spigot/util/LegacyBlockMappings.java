@@ -0,0 +1,72 @@
+package me.nullicorn.slimeball.spigot.util;
+
+import me.nullicorn.slimeball.slime.api.SlimeBlockState;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.block.data.BlockData;
+
+/**
+ * Legacy (pre-1.13) block IDs and states mapped to their modern Bukkit block data. The table is built once, when this class is first used
+ *
+ * @author Nullicorn
+ */
+@SuppressWarnings("deprecation")
+public final class LegacyBlockMappings {
+
+  /**
+   * Modern block data indexed by {@code (legacyId << 4) | legacyState}. Air and unknown blocks are null
+   */
+  private static final BlockData[] BY_LEGACY_STATE = new BlockData[256 * 16];
+
+  /**
+   * @param legacyId    Legacy numeric block ID (0 to 255)
+   * @param legacyState Legacy block state (0 to 15)
+   * @return The modern block data for the legacy block, or null if the block is air or has no modern equivalent
+   */
+  public static BlockData getBlockData(int legacyId, int legacyState) {
+    return BY_LEGACY_STATE[((legacyId & 0xFF) << 4) | (legacyState & 0x0F)];
+  }
+
+  /**
+   * @param block Block to get the modern data for
+   * @return The modern block data for the block, or null if the block is air or has no modern equivalent
+   * @see #getBlockData(int, int)
+   */
+  public static BlockData getBlockData(SlimeBlockState block) {
+    return getBlockData(block.getLegacyId(), block.getLegacyState());
+  }
+
+  /**
+   * Force the table to be built, if it hasn't been already
+   */
+  public static void init() {
+  }
+
+  /**
+   * Convert a single legacy block to modern block data the slow way (by its legacy material name)
+   */
+  private static BlockData convert(int legacyId, int legacyState) {
+    SlimeBlockState block = me.nullicorn.slimeball.slime.BlockData.of((byte) legacyId, (byte) legacyState);
+
+    Material legacyMaterial = Material.getMaterial("LEGACY_" + block.getLegacyName().toUpperCase());
+    if (legacyMaterial == null) {
+      return null;
+    }
+
+    BlockData blockData = Bukkit.getUnsafe().fromLegacy(legacyMaterial, block.getLegacyState());
+    return blockData == null || blockData.getMaterial().isAir()
+        ? null
+        : blockData;
+  }
+
+  static {
+    for (int legacyId = 0; legacyId < 256; legacyId++) {
+      for (int legacyState = 0; legacyState < 16; legacyState++) {
+        BY_LEGACY_STATE[(legacyId << 4) | legacyState] = convert(legacyId, legacyState);
+      }
+    }
+  }
+
+  private LegacyBlockMappings() {
+  }
+}
@@ -1,9 +1,18 @@
 package me.nullicorn.slimeball.spigot.world;
 
+import java.util.ArrayList;
+import java.util.List;
 import lombok.experimental.Delegate;
+import me.nullicorn.nedit.type.NBTCompound;
+import me.nullicorn.slimeball.slime.api.ChunkSink;
+import me.nullicorn.slimeball.slime.api.CoordinateKeys;
 import me.nullicorn.slimeball.slime.api.SlimeBlockState;
 import me.nullicorn.slimeball.slime.api.SlimeWorld;
+import me.nullicorn.slimeball.slime.util.LongObjectHashMap;
 import me.nullicorn.slimeball.spigot.SlimeBallPlugin;
+import me.nullicorn.slimeball.spigot.metrics.PluginEvents;
+import me.nullicorn.slimeball.spigot.util.LegacyBiomeMappings;
+import me.nullicorn.slimeball.spigot.util.LegacyBlockMappings;
 import me.nullicorn.slimeball.spigot.util.NBTUtil;
 import me.nullicorn.slimeball.spigot.util.TileEntityMappings;
 import net.minecraft.server.v1_15_R1.BlockPosition;
@@ -11,11 +20,11 @@ import net.minecraft.server.v1_15_R1.NBTTagCompound;
 import net.minecraft.server.v1_15_R1.NBTTagString;
 import net.minecraft.server.v1_15_R1.TileEntity;
 import org.bukkit.Chunk;
-import org.bukkit.Material;
+import org.bukkit.block.Biome;
+import org.bukkit.block.data.BlockData;
 import org.bukkit.craftbukkit.v1_15_R1.CraftWorld;
 import org.bukkit.generator.ChunkGenerator;
 import org.bukkit.generator.ChunkGenerator.BiomeGrid;
-import org.bukkit.material.MaterialData;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -30,13 +39,19 @@ public class BukkitSlimeWorld implements SlimeWorld {
   private final SlimeWorld      decoratedSlimeWorld;
   private final SlimeBallPlugin plugin;
 
+  /**
+   * The world's tile entities, grouped by the chunk they are in. Keys are packed chunk coordinates (see {@link CoordinateKeys#chunkKey(int, int)})
+   */
+  private final LongObjectHashMap<List<NBTCompound>> tileEntitiesByChunk;
+
   public BukkitSlimeWorld(SlimeWorld slimeData, SlimeBallPlugin plugin) {
     this.decoratedSlimeWorld = slimeData;
     this.plugin = plugin;
+    this.tileEntitiesByChunk = indexTileEntities(slimeData);
   }
 
   /**
-   * Copy all blocks and biom data from this slime world into the provided ChunkData object
+   * Copy all blocks and biome data from this slime world into the provided ChunkData object
    *
    * @param chunkData Chunk data object to copy block states into
    * @param biomeGrid Biome grid to copy biome data into
@@ -44,77 +59,50 @@ public class BukkitSlimeWorld implements SlimeWorld {
    * @param z         z-coordinate of the desired chunk
    */
   public void loadChunk(ChunkGenerator.ChunkData chunkData, BiomeGrid biomeGrid, int x, int z) {
-    // Ignore empty chunks
-    if (isChunkEmpty(x, z)) {
-      return;
-    }
-
-    // For each block in the chunk, read its material from the slime file
-    for (int blockX = 0; blockX < 16; blockX++) {
-      for (int blockY = 0; blockY < 256; blockY++) {
-        for (int blockZ = 0; blockZ < 16; blockZ++) {
-
-          // Read the material from the slime file
-          // If the block isn't empty (air), add it to the chunk
-          MaterialData blockState = getMaterialDataAt(blockX + (x * 16), blockY, blockZ + (z * 16));
-          if (!blockState.getItemType().isAir()) {
-            chunkData.setBlock(blockX, blockY, blockZ, blockState);
-          }
-
-          // TODO: 8/16/20 Copy biome data
-        }
-      }
-    }
+    // Missing chunks are ignored
+    ChunkSink.copyChunk(this, x, z, new BukkitChunkSink(chunkData, biomeGrid));
   }
 
-  private static final MaterialData AIR = new MaterialData(Material.AIR);
-
   /**
-   * Get the material data for the block at the provided coordinates
+   * Get the modern block data for the block at the provided coordinates
    *
-   * @return The block's material data
+   * @return The block's data, or null if the block is air
+   * @see LegacyBlockMappings
    */
-  public MaterialData getMaterialDataAt(int x, int y, int z) {
-    SlimeBlockState block = getBlockAt(x, y, z);
-
-    Material blockMaterial = Material.getMaterial("LEGACY_" + block.getLegacyName().toUpperCase());
-    if (blockMaterial != null) {
-      return blockMaterial.getNewData(block.getLegacyState());
-    }
-
-    // Fall-back to air
-    return AIR;
+  public BlockData getBlockDataAt(int x, int y, int z) {
+    return LegacyBlockMappings.getBlockData(getBlockAt(x, y, z));
   }
 
   /**
    * Load data for all tile entities in the provided chunk
    *
    * @param chunk Chunk to load tile entities in
+   * @return The number of tile entities that were loaded
    */
-  public void loadTileEntitiesForChunk(@NotNull Chunk chunk) {
+  public int loadTileEntitiesForChunk(@NotNull Chunk chunk) {
     if (!chunk.isLoaded()) {
-      return;
+      return 0;
+    }
+
+    // Ignore chunks without tile entities
+    List<NBTCompound> tileEntities = tileEntitiesByChunk.get(CoordinateKeys.chunkKey(chunk.getX(), chunk.getZ()));
+    if (tileEntities == null) {
+      return 0;
     }
-    SlimeWorldLoader worldLoader = plugin.getAllWorldLoaders().get(chunk.getWorld().getName());
 
-    // Iterate over tile entities in slime world
-    worldLoader.getSlimeWorld().getTileEntities().forEachCompound(tileEntityData -> {
+    Object loadEvent = PluginEvents.beginTileEntityLoad();
+    int loaded = 0;
+
+    for (NBTCompound tileEntityData : tileEntities) {
       BlockPosition tileEntityPos = new BlockPosition(
           tileEntityData.getInt("x", 0),
           tileEntityData.getInt("y", -1),
           tileEntityData.getInt("z", 0));
 
-      // Check if tile entity is in the requested chunk
-      int chunkX = (int) Math.floor(tileEntityPos.getX() / 16d);
-      int chunkZ = (int) Math.floor(tileEntityPos.getZ() / 16d);
-      if (chunkX != chunk.getX() || chunkZ != chunk.getZ()) {
-        return;
-      }
-
       // Check if the tile entity's block exists
       TileEntity tileEntity = ((CraftWorld) chunk.getWorld()).getHandle().getTileEntity(tileEntityPos);
       if (tileEntity == null) {
-        return;
+        continue;
       }
 
       // Ensure ID is lowercase before parsing
@@ -130,7 +118,24 @@ public class BukkitSlimeWorld implements SlimeWorld {
       // Update the tile entity in the world
       tileEntity.load(nmsTileData);
       tileEntity.update();
+      loaded++;
+    }
+    PluginEvents.endTileEntityLoad(loadEvent, chunk.getWorld().getName(), chunk.getX(), chunk.getZ(), loaded);
+    return loaded;
+  }
+
+  /**
+   * Group all of a world's tile entities by the chunk they are in
+   *
+   * @return The world's tile entities, mapped to the packed coordinates of the chunk they are in
+   */
+  private static LongObjectHashMap<List<NBTCompound>> indexTileEntities(SlimeWorld world) {
+    LongObjectHashMap<List<NBTCompound>> tileEntitiesByChunk = new LongObjectHashMap<>();
+    world.getTileEntities().forEachCompound(tileEntityData -> {
+      long chunkKey = CoordinateKeys.chunkKeyAtBlock(tileEntityData.getInt("x", 0), tileEntityData.getInt("z", 0));
+      tileEntitiesByChunk.computeIfAbsent(chunkKey, key -> new ArrayList<>()).add(tileEntityData);
     });
+    return tileEntitiesByChunk;
   }
 
   // TODO: 8/19/20 Add entity loading
@@ -139,4 +144,35 @@ public class BukkitSlimeWorld implements SlimeWorld {
   public String toString() {
     return "(SlimeWorld)" + decoratedSlimeWorld.toString();
   }
+
+  /**
+   * Copies a slime chunk's blocks & biomes into a chunk that the server is generating, converting them to their modern equivalents. Blocks and
+   * biomes that have no modern equivalent are left unchanged
+   */
+  private static final class BukkitChunkSink implements ChunkSink {
+
+    private final ChunkGenerator.ChunkData chunkData;
+    private final BiomeGrid                biomeGrid;
+
+    BukkitChunkSink(ChunkGenerator.ChunkData chunkData, BiomeGrid biomeGrid) {
+      this.chunkData = chunkData;
+      this.biomeGrid = biomeGrid;
+    }
+
+    @Override
+    public void setBiome(int x, int z, byte biome) {
+      Biome modernBiome = LegacyBiomeMappings.getBiome(biome);
+      if (modernBiome != null) {
+        biomeGrid.setBiome(x, z, modernBiome);
+      }
+    }
+
+    @Override
+    public void setBlock(int x, int y, int z, @NotNull SlimeBlockState block) {
+      BlockData blockData = LegacyBlockMappings.getBlockData(block);
+      if (blockData != null) {
+        chunkData.setBlock(x, y, z, blockData);
+      }
+    }
+  }
 }
\ No newline at end of file
@@ -0,0 +1,357 @@
+package me.nullicorn.slimeball.spigot.world;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import lombok.Getter;
+import me.nullicorn.slimeball.slime.BinarySlimeWorld;
+import me.nullicorn.slimeball.slime.ChunkLoadMode;
+import me.nullicorn.slimeball.slime.CopyOnWriteSlimeWorld;
+import me.nullicorn.slimeball.slime.HeapEstimates;
+import me.nullicorn.slimeball.slime.MappedSlimeReader;
+import me.nullicorn.slimeball.slime.SlimeDictionaries;
+import me.nullicorn.slimeball.slime.SlimeLoadMetrics;
+import me.nullicorn.slimeball.slime.api.SlimeWorld;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A process-wide cache of decoded slime files, shared between every world loaded from them. Worlds get a {@link CopyOnWriteSlimeWorld copy-on-write
+ * view} of a cached file instead of their own copy, so loading the same file again (or loading it for another world) does not read it from disk
+ * <p>
+ * Files are identified by their canonical path, last-modified time and size, so a file that changes on disk is read again. The least recently used
+ * files are evicted once the cache goes over either of its budgets: one for the estimated heap it uses, and one for the direct (off-heap) memory
+ * that holds each file's chunk data until every chunk has been decoded. Worlds that are still using an evicted file keep it in memory until they
+ * unload
+ * <p>
+ * Each file's heap size is estimated once, when it is read, and kept as a running total; chunks decoded after that are counted by the world as
+ * they are decoded
+ *
+ * @author Nullicorn
+ */
+public class SlimeWorldCache {
+
+  private static final Logger logger = LogManager.getLogger(SlimeWorldCache.class);
+
+  private final SlimeDictionaries dictionaries;
+
+  /**
+   * Cached (or loading) worlds, from least to most recently used. Guarded by {@code this}
+   */
+  private final LinkedHashMap<CacheKey, CacheEntry> worlds = new LinkedHashMap<>(16, 0.75f, true);
+
+  /**
+   * The sum of every cached world's {@link CacheEntry#estimatedSize}. Guarded by {@code this}
+   */
+  private long estimatedSize;
+
+  /**
+   * The estimated number of bytes that cached worlds may use before the least recently used ones are evicted
+   */
+  @Getter
+  private volatile long maxEstimatedSize;
+
+  /**
+   * The number of bytes that cached worlds may hold in direct buffers before the least recently used ones are evicted
+   */
+  @Getter
+  private volatile long maxDirectSize;
+
+  private long hitCount;
+  private long missCount;
+  private long evictionCount;
+
+  /**
+   * @param dictionaries     Dictionaries that slime files may have been compressed with
+   * @param maxEstimatedSize See {@link #maxEstimatedSize}
+   * @param maxDirectSize    See {@link #maxDirectSize}
+   */
+  public SlimeWorldCache(SlimeDictionaries dictionaries, long maxEstimatedSize, long maxDirectSize) {
+    this.dictionaries = dictionaries;
+    this.maxEstimatedSize = maxEstimatedSize;
+    this.maxDirectSize = maxDirectSize;
+  }
+
+  /**
+   * Get a new view of the world stored in a slime file, reading the file first if it is not cached
+   *
+   * @param slimeFile File to read world data from
+   * @return A view of the file's world that can be modified without affecting other worlds loaded from the same file
+   * @throws IOException If the file could not be read or was in an invalid format
+   */
+  @NotNull
+  public CopyOnWriteSlimeWorld newInstance(@NotNull File slimeFile) throws IOException {
+    return new CopyOnWriteSlimeWorld(get(slimeFile));
+  }
+
+  /**
+   * Get the shared world stored in a slime file, reading the file first if it is not cached. If the file is already being read on another thread,
+   * this waits for it to finish instead of reading it again
+   *
+   * @param slimeFile File to read world data from
+   * @return The file's world. This is shared, so it must not be modified
+   * @throws IOException If the file could not be read or was in an invalid format
+   */
+  @NotNull
+  public SlimeWorld get(@NotNull File slimeFile) throws IOException {
+    CacheKey key = CacheKey.of(slimeFile);
+
+    CacheEntry loading = null;
+    CompletableFuture<SlimeWorld> world;
+    synchronized (this) {
+      CacheEntry cached = worlds.get(key);
+      if (cached != null) {
+        hitCount++;
+        world = cached.world;
+      } else {
+        missCount++;
+        // Older versions of the file will never be used again
+        Iterator<Entry<CacheKey, CacheEntry>> iterator = worlds.entrySet().iterator();
+        while (iterator.hasNext()) {
+          Entry<CacheKey, CacheEntry> entry = iterator.next();
+          if (entry.getKey().path.equals(key.path)) {
+            estimatedSize -= entry.getValue().estimatedSize;
+            iterator.remove();
+          }
+        }
+
+        loading = new CacheEntry();
+        worlds.put(key, loading);
+        world = loading.world;
+      }
+    }
+
+    if (loading != null) {
+      try {
+        SlimeWorld read = read(slimeFile);
+
+        // Estimated before any other thread can see the world, so nothing has been lazily decoded yet
+        long readSize = HeapEstimates.ofWorld(read) - HeapEstimates.ofLazilyDecodedChunks(read);
+        synchronized (this) {
+          if (worlds.get(key) == loading) {
+            loading.estimatedSize = readSize;
+            estimatedSize += readSize;
+          }
+        }
+        loading.world.complete(read);
+      } catch (IOException | RuntimeException e) {
+        // Allow the file to be read again next time
+        synchronized (this) {
+          if (worlds.remove(key, loading)) {
+            estimatedSize -= loading.estimatedSize;
+          }
+        }
+        loading.world.completeExceptionally(e);
+      }
+      evictIfOverBudget();
+    }
+
+    try {
+      return world.join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof UncheckedIOException) {
+        throw ((UncheckedIOException) cause).getCause();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Change the cache's heap budget, evicting worlds if the cache is now over it
+   *
+   * @param maxEstimatedSize See {@link #maxEstimatedSize}
+   */
+  public void setMaxEstimatedSize(long maxEstimatedSize) {
+    this.maxEstimatedSize = maxEstimatedSize;
+    evictIfOverBudget();
+  }
+
+  /**
+   * Change the cache's direct memory budget, evicting worlds if the cache is now over it
+   *
+   * @param maxDirectSize See {@link #maxDirectSize}
+   */
+  public void setMaxDirectSize(long maxDirectSize) {
+    this.maxDirectSize = maxDirectSize;
+    evictIfOverBudget();
+  }
+
+  /**
+   * @return The estimated number of heap bytes used by every cached world
+   * @see HeapEstimates#ofWorld(SlimeWorld)
+   */
+  public synchronized long getEstimatedSize() {
+    long size = estimatedSize;
+    for (CacheEntry entry : worlds.values()) {
+      if (entry.isLoaded()) {
+        size += HeapEstimates.ofLazilyDecodedChunks(entry.world.join());
+      }
+    }
+    return size;
+  }
+
+  /**
+   * @return The number of bytes that every cached world holds in direct buffers
+   * @see HeapEstimates#ofDirectBuffers(SlimeWorld)
+   */
+  public synchronized long getDirectSize() {
+    long size = 0;
+    for (CacheEntry entry : worlds.values()) {
+      if (entry.isLoaded()) {
+        size += HeapEstimates.ofDirectBuffers(entry.world.join());
+      }
+    }
+    return size;
+  }
+
+  /**
+   * @return The number of files that are cached or being read
+   */
+  public synchronized int size() {
+    return worlds.size();
+  }
+
+  /**
+   * @return The number of times a world was found in the cache
+   */
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * @return The number of times a world had to be read from its file
+   */
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * @return The number of worlds removed from the cache to keep it within its budget
+   */
+  public synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * Remove every world from the cache, so that each file is read again the next time a world is loaded from it
+   */
+  public synchronized void clear() {
+    worlds.clear();
+    estimatedSize = 0;
+  }
+
+  /**
+   * Evict the least recently used worlds until the cache is within both of its budgets. The most recently used world is never evicted, even if it
+   * alone is over a budget, and neither are worlds that are still being read
+   */
+  private synchronized void evictIfOverBudget() {
+    long size = getEstimatedSize();
+    long directSize = getDirectSize();
+    Iterator<Entry<CacheKey, CacheEntry>> iterator = worlds.entrySet().iterator();
+    while ((size > maxEstimatedSize || directSize > maxDirectSize) && worlds.size() > 1 && iterator.hasNext()) {
+      Entry<CacheKey, CacheEntry> eldest = iterator.next();
+      CacheEntry entry = eldest.getValue();
+      if (!iterator.hasNext() || !entry.isLoaded()) {
+        continue;
+      }
+
+      SlimeWorld world = entry.world.join();
+      size -= entry.estimatedSize + HeapEstimates.ofLazilyDecodedChunks(world);
+      directSize -= HeapEstimates.ofDirectBuffers(world);
+      estimatedSize -= entry.estimatedSize;
+      iterator.remove();
+      evictionCount++;
+      logger.debug("Evicted slime file \"{}\" from the cache", eldest.getKey().path);
+    }
+  }
+
+  /**
+   * Read a slime file. Chunks are only decoded once a world asks for them; until they all have been, the file's chunk data is kept in a direct
+   * buffer, which counts towards the {@link #maxDirectSize}. Timings for reading the file are kept with the decoded world (see {@link
+   * BinarySlimeWorld#getLoadMetrics()})
+   */
+  private SlimeWorld read(File slimeFile) throws IOException {
+    logger.info("Reading slime file \"{}\"...", slimeFile.getPath());
+    try (MappedSlimeReader in = new MappedSlimeReader(slimeFile)) {
+      in.setDictionaries(dictionaries);
+      in.setMetrics(new SlimeLoadMetrics());
+      return in.readFully(ChunkLoadMode.LAZY);
+    }
+  }
+
+  /**
+   * A cached (or loading) world, and the size it was estimated to be when it was read
+   */
+  private static final class CacheEntry {
+
+    private final CompletableFuture<SlimeWorld> world = new CompletableFuture<>();
+
+    /**
+     * The world's estimated size when it was read, not counting chunks it has lazily decoded since. Guarded by the cache, and 0 until the world
+     * is read
+     */
+    private long estimatedSize;
+
+    boolean isLoaded() {
+      return world.isDone() && !world.isCompletedExceptionally();
+    }
+  }
+
+  /**
+   * Identifies a specific version of a slime file
+   */
+  private static final class CacheKey {
+
+    private final String path;
+    private final long   lastModified;
+    private final long   size;
+
+    private CacheKey(String path, long lastModified, long size) {
+      this.path = path;
+      this.lastModified = lastModified;
+      this.size = size;
+    }
+
+    /**
+     * @throws IOException If the file does not exist or its attributes could not be read
+     */
+    static CacheKey of(File file) throws IOException {
+      Path path = file.toPath().toRealPath();
+      BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+      return new CacheKey(path.toString(), attributes.lastModifiedTime().toMillis(), attributes.size());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      CacheKey that = (CacheKey) o;
+      return lastModified == that.lastModified
+          && size == that.size
+          && path.equals(that.path);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(path, lastModified, size);
+    }
+  }
+}
@@ -1,14 +1,18 @@
 package me.nullicorn.slimeball.spigot.world;
 
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.file.NoSuchFileException;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 import javax.annotation.Nullable;
 import lombok.AccessLevel;
 import lombok.Getter;
-import me.nullicorn.slimeball.slime.SlimeInputStream;
+import me.nullicorn.slimeball.slime.BinarySlimeWorld;
+import me.nullicorn.slimeball.slime.CopyOnWriteSlimeWorld;
 import me.nullicorn.slimeball.spigot.SlimeBallPlugin;
+import me.nullicorn.slimeball.spigot.metrics.PluginEvents;
+import me.nullicorn.slimeball.spigot.metrics.WorldMetrics;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.bukkit.World;
@@ -30,21 +34,49 @@ public class SlimeWorldLoader extends ChunkGenerator {
    * The slime world that this loader gets its information from
    */
   @Getter
-  private BukkitSlimeWorld slimeWorld;
+  private volatile BukkitSlimeWorld slimeWorld;
+
+  /**
+   * The slime world as it is being loaded in the background, or null if loading has not started yet
+   */
+  private CompletableFuture<BukkitSlimeWorld> loadingSlimeWorld;
 
   /**
    * Whether or not the slime file for the world was found initially
    */
-  private boolean slimeFileExists = true;
+  private volatile boolean slimeFileExists = true;
 
   /**
-   * The time (in ms) when this loader began loading chunks for its world
+   * The time (in ms) when this loader began loading its world's slime file
    */
   @Getter(AccessLevel.PACKAGE)
-  private long loadStartTime;
+  private volatile long loadStartTime;
+
+  /**
+   * Timings for loading the world and generating its chunks
+   */
+  @Getter
+  private final WorldMetrics metrics;
 
-  public SlimeWorldLoader(SlimeBallPlugin plugin) {
+  public SlimeWorldLoader(SlimeBallPlugin plugin, String worldName) {
     this.plugin = plugin;
+    this.metrics = new WorldMetrics(worldName);
+  }
+
+  /**
+   * Start loading the world's slime file on the plugin's loader threads, unless it is already being loaded
+   *
+   * @param slimeFile File to read world data from
+   * @return A future that completes with the world data from the file, or with null if it could not be read
+   */
+  public synchronized CompletableFuture<BukkitSlimeWorld> preload(File slimeFile) {
+    if (loadingSlimeWorld == null) {
+      logger.info("Loading slime file \"{}\"...", slimeFile.getPath());
+      loadStartTime = System.currentTimeMillis();
+      metrics.recordLoadStart();
+      loadingSlimeWorld = CompletableFuture.supplyAsync(() -> load(slimeFile), plugin.getLoaderExecutor());
+    }
+    return loadingSlimeWorld;
   }
 
   /**
@@ -56,42 +88,65 @@ public class SlimeWorldLoader extends ChunkGenerator {
     // Create a blank chunk
     ChunkData chunkData = createChunkData(world);
 
-    if (slimeFileExists) {
-      // Load the world's slime file (if not already loaded)
-      if (slimeWorld == null) {
-        logger.info("Loading slime file for world '{}'...", world.getName());
-        slimeWorld = load(new File(world.getWorldFolder(), "world.slime"));
-        loadStartTime = System.currentTimeMillis();
-
-        // Ignore future chunk loads if the file does not exist
-        if (slimeWorld == null) {
-          slimeFileExists = false;
-          return chunkData;
-        }
-      }
-
-      // Load the requested chunk data from the slime file
-      if (!slimeWorld.isChunkEmpty(x, z)) {
-        logger.debug("Loading slime chunk at ({}, {})...", x, z);
-        slimeWorld.loadChunk(chunkData, biomes, x, z);
-      }
+    // Load the requested chunk data from the slime file
+    BukkitSlimeWorld slimeWorld = awaitSlimeWorld(world);
+    Object generateEvent = PluginEvents.beginChunkGenerate();
+    long startTime = System.nanoTime();
+    boolean fromSlime = slimeWorld != null && !slimeWorld.isChunkEmpty(x, z);
+    if (fromSlime) {
+      logger.debug("Loading slime chunk at ({}, {})...", x, z);
+      slimeWorld.loadChunk(chunkData, biomes, x, z);
     }
 
+    // Waiting for the file to load is not included, since it is already measured separately
+    metrics.getChunkGeneration().record(System.nanoTime() - startTime);
+    PluginEvents.endChunkGenerate(generateEvent, world.getName(), x, z, fromSlime);
     return chunkData;
   }
 
   /**
-   * Load a slime world from a file
+   * Get the world's slime data, waiting for it to finish loading if it hasn't already. If loading was never started, it will be started now
+   *
+   * @return The world's slime data, or null if the slime file could not be read
+   */
+  @Nullable
+  private BukkitSlimeWorld awaitSlimeWorld(World world) {
+    BukkitSlimeWorld loaded = slimeWorld;
+    if (loaded != null || !slimeFileExists) {
+      return loaded;
+    }
+
+    // Only starting the load needs the lock; waiting for it happens outside, so other callers of preload() aren't blocked by the file read
+    loaded = preload(new File(world.getWorldFolder(), "world.slime")).join();
+    if (loaded != null) {
+      slimeWorld = loaded;
+    } else {
+      // Ignore future chunk loads if the file does not exist
+      slimeFileExists = false;
+    }
+    return loaded;
+  }
+
+  /**
+   * Load a slime world from a file. The file is only read if it is not in the plugin's {@link SlimeWorldCache}; otherwise, this world shares the
+   * data that was already decoded
    *
    * @param slimeFile File to read world data from
    * @return The world data from the file, or null if it could not be read
    */
   @Nullable
   private BukkitSlimeWorld load(File slimeFile) {
-    try (SlimeInputStream in = new SlimeInputStream(slimeFile)) {
-      return new BukkitSlimeWorld(in.readFully(), plugin);
+    try {
+      CopyOnWriteSlimeWorld slimeData = plugin.getWorldCache().newInstance(slimeFile);
+      if (slimeData.getTemplate() instanceof BinarySlimeWorld) {
+        metrics.setFileMetrics(((BinarySlimeWorld) slimeData.getTemplate()).getLoadMetrics());
+      }
+
+      BukkitSlimeWorld loaded = new BukkitSlimeWorld(slimeData, plugin);
+      metrics.recordLoadEnd();
+      return loaded;
 
-    } catch (FileNotFoundException e) {
+    } catch (NoSuchFileException e) {
       logger.error(String.format("Slime file not found at \"%s\"", slimeFile.getAbsolutePath()));
 
     } catch (IOException e) {
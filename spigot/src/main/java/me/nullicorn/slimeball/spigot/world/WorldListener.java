@@ -44,7 +44,9 @@ public class WorldListener implements Listener {
     if (plugin.isWorldSlimeWorld(event.getWorld())) {
       BukkitSlimeWorld slimeWorld = ((SlimeWorldLoader) event.getWorld().getGenerator()).getSlimeWorld();
       if (slimeWorld != null) {
-        slimeWorld.loadTileEntitiesForChunk(event.getChunk());
+        long startTime = System.nanoTime();
+        int tileEntities = slimeWorld.loadTileEntitiesForChunk(event.getChunk());
+        ((SlimeWorldLoader) event.getWorld().getGenerator()).getMetrics().recordTileEntities(System.nanoTime() - startTime, tileEntities);
       }
     }
   }